@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.bench.index;
+
+import static org.apache.solr.bench.Docs.docs;
+import static org.apache.solr.bench.generators.SourceDSL.integers;
+import static org.apache.solr.bench.generators.SourceDSL.longs;
+import static org.apache.solr.bench.generators.SourceDSL.strings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.solr.bench.Docs;
+import org.apache.solr.bench.SolrBenchState;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.CoreDescriptor;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.CommitUpdateCommand;
+import org.apache.solr.update.TransactionLog;
+import org.apache.solr.update.UpdateHandler;
+import org.apache.solr.update.UpdateLocks;
+import org.apache.solr.update.UpdateLog;
+import org.apache.solr.update.VersionInfo;
+import org.apache.solr.update.processor.UpdateRequestProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In-process benchmarks of the stages of the update pipeline of a single core, to tell which stage
+ * limits indexing throughput:
+ *
+ * <ul>
+ *   <li>{@code processorChain}: the default update processor chain, i.e. versioning and per-doc
+ *       locking in {@code DistributedUpdateProcessor} followed by everything below.
+ *   <li>{@code updateHandler}: {@code DirectUpdateHandler2.addDoc}, including the update log.
+ *   <li>{@code updateLocks}: just the per-doc {@link UpdateLocks}.
+ *   <li>{@code transactionLogWrite}: just {@link TransactionLog#write(AddUpdateCommand)}.
+ * </ul>
+ *
+ * Each invocation handles a batch of {@code batchSize} documents. Use the GC profiler to report
+ * allocation rates: {@code ./jmh.sh UpdatePipeline -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// the pre-generated documents are shared and modified (_version_), so don't use more threads
+@Threads(1)
+@Warmup(time = 10, iterations = 3)
+@Measurement(time = 20, iterations = 4)
+@Fork(value = 1)
+public class UpdatePipeline {
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+
+    static final String CORE_NAME = "core1";
+
+    // roll the benchmark's own tlog once it gets this big
+    static final long MAX_TLOG_SIZE = 256L * 1024 * 1024;
+
+    @Param({"small", "large"})
+    String docShape;
+
+    @Param({"1", "100"})
+    int batchSize;
+
+    @Param({"50000"})
+    int preGenerate;
+
+    private Path solrHome;
+    private CoreContainer coreContainer;
+    SolrCore core;
+    private SolrQueryRequest req;
+    private Iterator<SolrInputDocument> docIterator;
+
+    private Path tlogDir;
+    private long tlogId;
+    private TransactionLog tlog;
+    private long version;
+
+    private Docs newDocs() {
+      return switch (docShape) {
+        case "small" ->
+            docs()
+                .field("id", integers().incrementing())
+                .field("text", strings().basicLatinAlphabet().multi(2).ofLengthBetween(20, 32))
+                .field("int1_i", integers().all())
+                .field("int2_i", integers().all())
+                .field("long1_l", longs().all());
+        case "large" ->
+            docs()
+                .field("id", integers().incrementing())
+                .field(strings().basicLatinAlphabet().multi(312).ofLengthBetween(30, 64))
+                .field(strings().basicLatinAlphabet().multi(312).ofLengthBetween(30, 64))
+                .field(integers().all())
+                .field(integers().all())
+                .field(integers().all())
+                .field(longs().all())
+                .field(longs().all());
+        default -> throw new IllegalArgumentException("Unknown docShape: " + docShape);
+      };
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception {
+      Docs docs = newDocs();
+      docs.preGenerate(preGenerate);
+      docIterator = docs.generatedDocsCircularIterator();
+
+      solrHome = Path.of(System.getProperty("workBaseDir", "build/work"), "update-pipeline");
+      if (Files.exists(solrHome)) {
+        PathUtils.deleteDirectory(solrHome);
+      }
+      Files.createDirectories(solrHome);
+      PathUtils.copyDirectory(
+          SolrBenchState.getFile("src/resources/configs/cloud-minimal/conf"),
+          solrHome.resolve("configsets/cloud-minimal/conf"));
+      PathUtils.copyFileToDirectory(SolrBenchState.getFile("src/resources/solr.xml"), solrHome);
+
+      coreContainer = new CoreContainer(solrHome, new Properties());
+      coreContainer.load();
+      coreContainer.create(CORE_NAME, Map.of(CoreDescriptor.CORE_CONFIGSET, "cloud-minimal"));
+      core = coreContainer.getCore(CORE_NAME);
+      req = new LocalSolrQueryRequest(core, new ModifiableSolrParams());
+
+      tlogDir = solrHome.resolve("bench-tlog");
+      Files.createDirectories(tlogDir);
+      newTlog();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+      // keep the index's tlog from growing across iterations
+      core.getUpdateHandler().commit(new CommitUpdateCommand(req, false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+      tlog.decref();
+      req.close();
+      core.close();
+      coreContainer.shutdown();
+      PathUtils.deleteDirectory(solrHome);
+    }
+
+    SolrInputDocument nextDoc() {
+      return docIterator.next();
+    }
+
+    AddUpdateCommand nextCmd(SolrQueryRequest req) {
+      AddUpdateCommand cmd = new AddUpdateCommand(req);
+      cmd.solrDoc = nextDoc();
+      // the docs are reused: drop the version set the last time around, or the add would take
+      // the optimistic concurrency path of DistributedUpdateProcessor
+      cmd.solrDoc.removeField(CommonParams.VERSION_FIELD);
+      return cmd;
+    }
+
+    TransactionLog tlog() {
+      if (tlog.position() > MAX_TLOG_SIZE) {
+        tlog.decref(); // closes and deletes it
+        newTlog();
+      }
+      return tlog;
+    }
+
+    private void newTlog() {
+      String name =
+          String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, tlogId++);
+      tlog =
+          core.getUpdateHandler()
+              .getUpdateLog()
+              .newTransactionLog(tlogDir.resolve(name), List.of(), false);
+    }
+  }
+
+  @Benchmark
+  public void processorChain(BenchState state) throws IOException {
+    SolrQueryRequest req = new LocalSolrQueryRequest(state.core, new ModifiableSolrParams());
+    SolrQueryResponse rsp = new SolrQueryResponse();
+    SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+    try {
+      UpdateRequestProcessor processor =
+          state.core.getUpdateProcessingChain(null).createProcessor(req, rsp);
+      try {
+        for (int i = 0; i < state.batchSize; i++) {
+          processor.processAdd(state.nextCmd(req));
+        }
+        processor.finish();
+      } finally {
+        processor.close();
+      }
+    } finally {
+      SolrRequestInfo.clearRequestInfo();
+      req.close();
+    }
+  }
+
+  @Benchmark
+  public void updateHandler(BenchState state) throws IOException {
+    UpdateHandler updateHandler = state.core.getUpdateHandler();
+    VersionInfo versionInfo = updateHandler.getUpdateLog().getVersionInfo();
+    for (int i = 0; i < state.batchSize; i++) {
+      AddUpdateCommand cmd = state.nextCmd(state.req);
+      // as DistributedUpdateProcessor would do on the leader
+      long version = versionInfo.getNewClock();
+      cmd.solrDoc.setField(CommonParams.VERSION_FIELD, version);
+      cmd.setVersion(version);
+      updateHandler.addDoc(cmd);
+    }
+  }
+
+  @Benchmark
+  public void updateLocks(BenchState state) throws IOException {
+    UpdateLocks locks = state.core.getUpdateHandler().getUpdateLog().getLocks();
+    for (int i = 0; i < state.batchSize; i++) {
+      locks.runWithLock(state.nextCmd(state.req).getIndexedId(), condition -> null);
+    }
+  }
+
+  @Benchmark
+  public long transactionLogWrite(BenchState state) {
+    TransactionLog tlog = state.tlog();
+    long pos = 0;
+    for (int i = 0; i < state.batchSize; i++) {
+      AddUpdateCommand cmd = state.nextCmd(state.req);
+      cmd.setVersion(++state.version);
+      pos = tlog.write(cmd);
+    }
+    return pos;
+  }
+}
@@ -32,6 +32,8 @@ public class RateLimiterConfig {
   public final int allowedRequests;
   public final boolean isSlotBorrowingEnabled;
   public final int guaranteedSlotsThreshold;
+  public final boolean isAdaptiveLimitEnabled;
+  public final int minAllowedRequests;
 
   /**
    * We store the config definition in order to determine whether anything has changed that would
@@ -98,6 +100,14 @@ public class RateLimiterConfig {
             ? DEFAULT_SLOT_ACQUISITION_TIMEOUT_MS
             : definition.slotAcquisitionTimeoutInMS.longValue();
 
+    isAdaptiveLimitEnabled =
+        definition.adaptiveLimitEnabled == null ? false : definition.adaptiveLimitEnabled;
+
+    minAllowedRequests =
+        definition.minAllowedRequests == null
+            ? Math.max(1, this.allowedRequests / 4)
+            : Math.max(1, Math.min(definition.minAllowedRequests, this.allowedRequests));
+
     this.definition = definition;
   }
 
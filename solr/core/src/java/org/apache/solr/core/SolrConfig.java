@@ -76,9 +76,11 @@ import org.apache.solr.schema.IndexSchemaFactory;
 import org.apache.solr.search.CacheConfig;
 import org.apache.solr.search.CaffeineCache;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
 import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
+import org.apache.solr.search.facet.SegmentFacetCountCache;
 import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.servlet.SolrRequestParsers;
 import org.apache.solr.spelling.QueryConverter;
@@ -292,6 +294,7 @@ public class SolrConfig implements MapWriter {
       //    filtOptThreshold = getFloat("query/boolTofilterOptimizer/@threshold",.05f);
 
       useFilterForSortedQuery = get("query").get("useFilterForSortedQuery").boolVal(false);
+      earlyTerminateOnIndexSort = get("query").get("earlyTerminateOnIndexSort").boolVal(false);
       queryResultWindowSize = Math.max(1, get("query").get("queryResultWindowSize").intVal(1));
       queryResultMaxDocsCached =
           get("query").get("queryResultMaxDocsCached").intVal(Integer.MAX_VALUE);
@@ -317,6 +320,20 @@ public class SolrConfig implements MapWriter {
         conf = new CacheConfig(CaffeineCache.class, args, null);
       }
       fieldValueCacheConfig = conf;
+      ConfigNode segmentFilterCacheNode = get("query").get("segmentFilterCache");
+      segmentFilterCacheMaxRamMB =
+          segmentFilterCacheNode.exists() && segmentFilterCacheNode.boolAttr("enabled", true)
+              ? segmentFilterCacheNode.intAttr(
+                  SegmentFilterCache.MAX_RAM_MB_PARAM, SegmentFilterCache.DEFAULT_MAX_RAM_MB)
+              : -1;
+      ConfigNode segmentFacetCountCacheNode = get("query").get("segmentFacetCountCache");
+      segmentFacetCountCacheMaxRamMB =
+          segmentFacetCountCacheNode.exists()
+                  && segmentFacetCountCacheNode.boolAttr("enabled", true)
+              ? segmentFacetCountCacheNode.intAttr(
+                  SegmentFacetCountCache.MAX_RAM_MB_PARAM,
+                  SegmentFacetCountCache.DEFAULT_MAX_RAM_MB)
+              : -1;
       useColdSearcher = get("query").get("useColdSearcher").boolVal(false);
       dataDir = get("dataDir").txt();
       if (dataDir != null && dataDir.length() == 0) dataDir = null;
@@ -660,8 +677,15 @@ public class SolrConfig implements MapWriter {
   public final CacheConfig fieldValueCacheConfig;
   public final CacheConfig featureVectorCacheConfig;
   public final Map<String, CacheConfig> userCacheConfigs;
+
+  /** RAM limit of the core's {@link SegmentFilterCache}; -1 if it is not enabled. */
+  public final int segmentFilterCacheMaxRamMB;
+
+  /** RAM limit of the core's {@link SegmentFacetCountCache}; -1 if it is not enabled. */
+  public final int segmentFacetCountCacheMaxRamMB;
   // SolrIndexSearcher - more...
   public final boolean useFilterForSortedQuery;
+  public final boolean earlyTerminateOnIndexSort;
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
   public final boolean enableLazyFieldLoading;
@@ -959,9 +983,21 @@ public class SolrConfig implements MapWriter {
         (MapWriter)
             m -> {
               m.put("useFilterForSortedQuery", useFilterForSortedQuery);
+              m.put("earlyTerminateOnIndexSort", earlyTerminateOnIndexSort);
               m.put("queryResultWindowSize", queryResultWindowSize);
               m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
               m.put("enableLazyFieldLoading", enableLazyFieldLoading);
+              if (segmentFilterCacheMaxRamMB >= 0) {
+                m.put(
+                    "segmentFilterCache",
+                    Map.of(SegmentFilterCache.MAX_RAM_MB_PARAM, segmentFilterCacheMaxRamMB));
+              }
+              if (segmentFacetCountCacheMaxRamMB >= 0) {
+                m.put(
+                    "segmentFacetCountCache",
+                    Map.of(
+                        SegmentFacetCountCache.MAX_RAM_MB_PARAM, segmentFacetCountCacheMaxRamMB));
+              }
               m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
               m.put(MIN_PREFIX_QUERY_TERM_LENGTH, prefixQueryMinPrefixLength);
 
@@ -138,8 +138,10 @@ import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.ManagedIndexSchema;
 import org.apache.solr.schema.SimilarityFactory;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
+import org.apache.solr.search.facet.SegmentFacetCountCache;
 import org.apache.solr.search.stats.LocalStatsCache;
 import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.update.DefaultSolrCoreState;
@@ -235,6 +237,8 @@ public class SolrCore implements SolrInfoBean, Closeable {
   private final ConfigSet configSet;
   private final Cache<IndexReader.CacheKey, IndexFingerprint> perSegmentFingerprintCache =
       Caffeine.newBuilder().weakKeys().build();
+  private final SegmentFilterCache segmentFilterCache;
+  private final SegmentFacetCountCache segmentFacetCountCache;
   // singleton listener for all packages used in schema
 
   private final CircuitBreakerRegistry circuitBreakerRegistry;
@@ -1118,6 +1122,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
       // initialize core metrics
       initializeMetrics(solrMetricsContext, coreAttributes);
 
+      this.segmentFilterCache = initSegmentFilterCache(solrConfig);
+      this.segmentFacetCountCache = initSegmentFacetCountCache(solrConfig);
+
       // init pluggable circuit breakers, after metrics because some circuit breakers use metrics
       initPlugins(null, CircuitBreaker.class);
 
@@ -1641,6 +1648,42 @@ public class SolrCore implements SolrInfoBean, Closeable {
     return factory.getCodec();
   }
 
+  private SegmentFilterCache initSegmentFilterCache(SolrConfig config) {
+    if (config.segmentFilterCacheMaxRamMB < 0) {
+      return null;
+    }
+    SegmentFilterCache cache =
+        new SegmentFilterCache(config.segmentFilterCacheMaxRamMB * 1024L * 1024L);
+    cache.initializeMetrics(solrMetricsContext, coreAttributes);
+    return cache;
+  }
+
+  /**
+   * Returns the per-segment filter cache shared by all searchers of this core, or null if it is not
+   * configured.
+   */
+  public SegmentFilterCache getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
+  private SegmentFacetCountCache initSegmentFacetCountCache(SolrConfig config) {
+    if (config.segmentFacetCountCacheMaxRamMB < 0) {
+      return null;
+    }
+    SegmentFacetCountCache cache =
+        new SegmentFacetCountCache(config.segmentFacetCountCacheMaxRamMB * 1024L * 1024L);
+    cache.initializeMetrics(solrMetricsContext, coreAttributes);
+    return cache;
+  }
+
+  /**
+   * Returns the per-segment facet count cache shared by all searchers of this core, or null if it
+   * is not configured.
+   */
+  public SegmentFacetCountCache getSegmentFacetCountCache() {
+    return segmentFacetCountCache;
+  }
+
   /** Create an instance of {@link StatsCache} using configured parameters. */
   public StatsCache createStatsCache() {
     final StatsCache cache;
@@ -1872,6 +1915,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
       }
     }
 
+    IOUtils.closeQuietly(segmentFilterCache);
+    IOUtils.closeQuietly(segmentFacetCountCache);
+
     if (coreStateClosed) {
       try {
         cleanupOldIndexDirectories(false);
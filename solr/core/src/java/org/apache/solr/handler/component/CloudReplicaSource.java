@@ -48,6 +48,7 @@ class CloudReplicaSource implements ReplicaSource {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private String[] slices;
+  private String[] collections;
   private List<String>[] replicas;
 
   private CloudReplicaSource(Builder builder) {
@@ -90,16 +91,19 @@ class CloudReplicaSource implements ReplicaSource {
     }
 
     this.slices = sliceMap.keySet().toArray(new String[0]);
+    this.collections = new String[slices.length];
     this.replicas = newReplicasArray(slices.length);
     for (int i = 0; i < slices.length; i++) {
-      String sliceName = slices[i];
-      replicas[i] = findReplicas(builder, null, clusterState, sliceMap.get(sliceName));
+      Slice slice = sliceMap.get(slices[i]);
+      collections[i] = slice.getCollection();
+      replicas[i] = findReplicas(builder, null, clusterState, slice);
     }
   }
 
   private void withShardsParam(Builder builder, String shardsParam) {
     List<String> sliceOrUrls = StrUtils.splitSmart(shardsParam, ",", true);
     this.slices = new String[sliceOrUrls.size()];
+    this.collections = new String[sliceOrUrls.size()];
     this.replicas = newReplicasArray(sliceOrUrls.size());
 
     ClusterState clusterState = builder.zkStateReader.getClusterState();
@@ -115,6 +119,7 @@ class CloudReplicaSource implements ReplicaSource {
               SolrException.ErrorCode.BAD_REQUEST,
               "Could not find collection to resolve replicas: " + builder.collection);
         }
+        this.collections[i] = coll.getName();
         replicas[i] = findReplicas(builder, shardsParam, clusterState, coll.getSlice(sliceOrUrl));
       } else {
         // this has urls
@@ -213,6 +218,12 @@ class CloudReplicaSource implements ReplicaSource {
     return replicas[sliceNumber];
   }
 
+  @Override
+  public String getCollection(int sliceNumber) {
+    assert sliceNumber >= 0 && sliceNumber < collections.length;
+    return collections[sliceNumber];
+  }
+
   @Override
   public int getSliceCount() {
     return slices.length;
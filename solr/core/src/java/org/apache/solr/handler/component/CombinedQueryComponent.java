@@ -276,6 +276,11 @@ public class CombinedQueryComponent extends QueryComponent implements SolrCoreAw
     return List.of();
   }
 
+  @Override
+  protected boolean mergeIdsIncrementally(ResponseBuilder rb) {
+    return false;
+  }
+
   /**
    * Each shard response contains both "response" and "response_per_query". Only "response" is
    * deduplicated across sub-queries, so any processing of "response_per_query" must exclude docs
@@ -79,6 +79,8 @@ import org.apache.solr.search.CollapsingQParserPlugin;
 import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.DocSlice;
+import org.apache.solr.search.GroupTopDocsBuffer;
+import org.apache.solr.search.PostFilter;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QueryLimits;
 import org.apache.solr.search.QueryUtils;
@@ -125,9 +127,51 @@ public class ExpandComponent extends SearchComponent implements PluginInfoInitia
             SolrException.ErrorCode.BAD_REQUEST, "Can not use expand with Grouping enabled");
       }
       rb.doExpand = true;
+      prepareGroupTopDocs(rb);
     }
   }
 
+  /**
+   * Asks the collapse filter to keep the top documents of each group when {@link
+   * ExpandParams#EXPAND_SINGLE_PASS} is set and those are exactly the expanded documents: the main
+   * query, filters and score order are used to expand, and no null group is expanded.
+   */
+  private void prepareGroupTopDocs(ResponseBuilder rb) {
+    SolrParams params = rb.req.getParams();
+    int limit = params.getInt(ExpandParams.EXPAND_ROWS, 5);
+    if (!params.getBool(ExpandParams.EXPAND_SINGLE_PASS, false)
+        || params.get(ExpandParams.EXPAND_Q) != null
+        || params.get(ExpandParams.EXPAND_FQ) != null
+        || params.get(ExpandParams.EXPAND_SORT) != null
+        || params.getBool(ExpandParams.EXPAND_NULL, false)
+        || limit < 0
+        || limit >= GroupTopDocsBuffer.MAX_SIZE
+        || rb.getRankQuery() != null
+        || rb.getFilters() == null) {
+      return;
+    }
+
+    CollapsingQParserPlugin.CollapsingPostFilter collapse = null;
+    for (Query q : rb.getFilters()) {
+      if (q instanceof CollapsingQParserPlugin.CollapsingPostFilter cp) {
+        if (collapse != null) {
+          return; // the other collapse changes the documents this one sees
+        }
+        collapse = cp;
+      } else if (q instanceof PostFilter pf && !pf.getCache() && pf.getCost() >= 100) {
+        return; // may reject documents after the collapse kept them
+      }
+    }
+    String field = params.get(ExpandParams.EXPAND_FIELD);
+    if (collapse == null || (field != null && !field.equals(collapse.getField()))) {
+      return;
+    }
+    // one more document per group than expanded, for the group head
+    rb.req
+        .getContext()
+        .put(GroupTopDocsBuffer.CONTEXT_KEY, new GroupTopDocsBuffer(collapse, limit + 1));
+  }
+
   @Override
   public void process(ResponseBuilder rb) throws IOException {
 
@@ -371,6 +415,16 @@ public class ExpandComponent extends SearchComponent implements PluginInfoInitia
       }
     }
 
+    if (req.getContext().get(GroupTopDocsBuffer.CONTEXT_KEY) instanceof GroupTopDocsBuffer buffer
+        && buffer.isComplete()) {
+      SimpleOrderedMap<DocSlice> groups =
+          getBufferedGroups(buffer, limit, fieldType, ordBytes, groupSet, collapsedSet);
+      if (groups != null) {
+        rb.rsp.add("expanded", groups);
+        return;
+      }
+    }
+
     final boolean expandNullGroup =
         params.getBool(ExpandParams.EXPAND_NULL, false)
             &&
@@ -452,6 +506,67 @@ public class ExpandComponent extends SearchComponent implements PluginInfoInitia
     rb.rsp.add("expanded", groupExpandCollector.getGroups(searcher, rb.rsp.getReturnFields()));
   }
 
+  /**
+   * Expands the groups of the current page from the top documents the collapse filter kept, or
+   * returns null if the current page does not hold the group heads the buffer expects, in which
+   * case the groups need to be searched.
+   */
+  private SimpleOrderedMap<DocSlice> getBufferedGroups(
+      GroupTopDocsBuffer buffer,
+      int limit,
+      FieldType fieldType,
+      IntObjectHashMap<BytesRef> ordBytes,
+      LongHashSet groupSet,
+      IntHashSet collapsedSet) {
+    final SimpleOrderedMap<DocSlice> outMap = new SimpleOrderedMap<>();
+    final CharsRefBuilder charsRef = new CharsRefBuilder();
+    final int[] topDocs = new int[buffer.getSize()];
+    final float[] topScores = new float[buffer.getSize()];
+
+    final int numGroups = ordBytes != null ? ordBytes.size() : groupSet.size();
+    final Iterator<IntObjectCursor<BytesRef>> ordIt =
+        ordBytes != null ? ordBytes.iterator() : null;
+    final Iterator<LongCursor> valueIt = groupSet != null ? groupSet.iterator() : null;
+    for (int i = 0; i < numGroups; i++) {
+      final int group;
+      final String groupName;
+      if (ordIt != null) {
+        IntObjectCursor<BytesRef> cursor = ordIt.next();
+        group = cursor.key;
+        fieldType.indexedToReadable(cursor.value, charsRef);
+        groupName = charsRef.toString();
+      } else {
+        long value = valueIt.next().value;
+        // the collapse keys its groups on the int value, or the int bits of a float value
+        group = (int) value;
+        groupName = numericToString(fieldType, value);
+      }
+
+      final int kept = buffer.getTopDocs(group, topDocs, topScores);
+      if (kept == 0 || !collapsedSet.contains(topDocs[0])) {
+        return null;
+      }
+      final int[] docs = new int[Math.min(kept - 1, limit)];
+      final float[] scores = new float[docs.length];
+      System.arraycopy(topDocs, 1, docs, 0, docs.length);
+      System.arraycopy(topScores, 1, scores, 0, scores.length);
+      final int matches = buffer.getCount(group) - 1;
+      if (matches == 0) {
+        continue;
+      }
+      if (limit == 0) {
+        outMap.add(
+            groupName, new DocSlice(0, 0, null, null, matches, 0, TotalHits.Relation.EQUAL_TO));
+      } else {
+        outMap.add(
+            groupName,
+            new DocSlice(
+                0, docs.length, docs, scores, matches, Float.NaN, TotalHits.Relation.EQUAL_TO));
+      }
+    }
+    return outMap;
+  }
+
   @Override
   public int distributedProcess(ResponseBuilder rb) throws IOException {
     if (rb.doExpand && rb.getStage() < finishingStage) {
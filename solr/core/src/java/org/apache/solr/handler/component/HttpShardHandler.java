@@ -20,6 +20,7 @@ import static org.apache.solr.common.params.CommonParams.PARTIAL_RESULTS;
 import static org.apache.solr.request.SolrQueryRequest.disallowPartialResults;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,12 +31,15 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrResponse;
 import org.apache.solr.client.solrj.impl.LBAsyncSolrClient;
 import org.apache.solr.client.solrj.impl.LBSolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.routing.AdaptiveReplicaListTransformerFactory;
 import org.apache.solr.client.solrj.routing.NoOpReplicaListTransformer;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
 import org.apache.solr.cloud.CloudDescriptor;
@@ -116,6 +120,10 @@ public class HttpShardHandler extends ShardHandler {
   private final Map<String, List<String>> shardToURLs;
   protected LBAsyncSolrClient lbClient;
 
+  // the collection queried by each shard, keying the response times tracked for hedging; set
+  // before the shard requests are submitted
+  private final Map<String, String> shardToCollection;
+
   public HttpShardHandler(HttpShardHandlerFactory httpShardHandlerFactory) {
     this.httpShardHandlerFactory = httpShardHandlerFactory;
     this.lbClient = httpShardHandlerFactory.loadbalancer;
@@ -127,6 +135,7 @@ public class HttpShardHandler extends ShardHandler {
     // This is primarily to keep track of what order we should use to query the replicas of a shard
     // so that we use the same replica for all phases of a distributed request.
     shardToURLs = new HashMap<>();
+    shardToCollection = new ConcurrentHashMap<>();
   }
 
   /**
@@ -282,7 +291,10 @@ public class HttpShardHandler extends ShardHandler {
       SimpleSolrResponse ssr,
       ShardResponse srsp,
       long startTimeNS) {
-    CompletableFuture<LBSolrClient.Rsp> future = this.lbClient.requestAsync(lbReq);
+    final ShardLatencyTracker latencyTracker =
+        httpShardHandlerFactory.getLatencyTracker(
+            shardToCollection.get(shard), sreq.purpose, lbReq);
+    CompletableFuture<LBSolrClient.Rsp> future = requestAsync(lbReq, latencyTracker);
     // Hold the cancellation lock so the canceled check and the responseFutureMap put happen as one
     // step: either we register this future for later cancellation, or (if cancelAll already ran) we
     // cancel it now and never track it.
@@ -294,10 +306,20 @@ public class HttpShardHandler extends ShardHandler {
         responseFutureMap.put(srsp, future);
       }
     }
+    final AdaptiveReplicaListTransformerFactory replicaRouting =
+        httpShardHandlerFactory.getAdaptiveReplicaListTransformerFactory();
+    // the load balancer tries the replicas in order, so the request (usually) goes to the first
+    final String replicaUrl = lbReq.getEndpoints().get(0).getUrl();
+    if (replicaRouting != null) {
+      replicaRouting.requestStarted(replicaUrl);
+    }
     // Add the callback explicitly after adding the future to the map, because the callback relies
     // on the map already having the future.
     future.whenComplete(
         (LBSolrClient.Rsp rsp, Throwable throwable) -> {
+          if (replicaRouting != null) {
+            replicaRouting.requestFinished(replicaUrl);
+          }
           try {
             if (rsp != null) {
               ssr.nl = rsp.getResponse();
@@ -311,6 +333,12 @@ public class HttpShardHandler extends ShardHandler {
             ssr.elapsedTime =
                 TimeUnit.MILLISECONDS.convert(
                     System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
+            if (rsp != null && latencyTracker != null) {
+              latencyTracker.record(ssr.elapsedTime);
+            }
+            if (rsp != null && replicaRouting != null && rsp.getServer() != null) {
+              replicaRouting.recordResponseTime(rsp.getServer(), ssr.elapsedTime);
+            }
             enqueueIfTracked(srsp, HttpShardHandler.this.transformResponse(sreq, srsp, shard));
           } catch (Exception e) {
             // If response processing throws (a subclass transformResponse, a malformed Rsp, etc.)
@@ -328,6 +356,82 @@ public class HttpShardHandler extends ShardHandler {
         });
   }
 
+  /**
+   * Sends the request through the load balancer. If requests are hedged and the shard has more than
+   * one replica, a second request is sent to the next replica when the first one hasn't answered
+   * within the configured percentile of the recent response times of the queried collection (or
+   * of the shard itself, if its collection isn't known). The first successful response completes
+   * the returned future, which fails only once both requests failed. Completing or cancelling it
+   * cancels whichever request is still running.
+   */
+  private CompletableFuture<LBSolrClient.Rsp> requestAsync(
+      LBSolrClient.Req lbReq, ShardLatencyTracker latencyTracker) {
+    final CompletableFuture<LBSolrClient.Rsp> primary = lbClient.requestAsync(lbReq);
+    final List<LBSolrClient.Endpoint> endpoints = lbReq.getEndpoints();
+    final long hedgeDelay =
+        latencyTracker == null || endpoints.size() < 2
+            ? -1
+            : httpShardHandlerFactory.getHedgeDelay(latencyTracker);
+    if (hedgeDelay < 0) {
+      return primary;
+    }
+
+    // start with the next replica, keeping the load balancer's order for the rest
+    final List<LBSolrClient.Endpoint> hedgeEndpoints = new ArrayList<>(endpoints.size());
+    hedgeEndpoints.addAll(endpoints.subList(1, endpoints.size()));
+    hedgeEndpoints.add(endpoints.get(0));
+    final LBSolrClient.Req hedgeReq =
+        new LBSolrClient.Req(lbReq.getRequest(), hedgeEndpoints, lbReq.getNumServersToTry());
+
+    final CompletableFuture<LBSolrClient.Rsp> result = new CompletableFuture<>();
+    // requests that may still complete the result; stays 0 once all of them failed
+    final AtomicInteger outstanding = new AtomicInteger(1);
+    final AtomicReference<CompletableFuture<LBSolrClient.Rsp>> hedge = new AtomicReference<>();
+    completeFrom(primary, result, outstanding, false);
+    CompletableFuture.delayedExecutor(
+            hedgeDelay, TimeUnit.MILLISECONDS, httpShardHandlerFactory.commExecutor)
+        .execute(
+            () -> {
+              if (result.isDone() || outstanding.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+              }
+              httpShardHandlerFactory.hedgedRequests.increment();
+              CompletableFuture<LBSolrClient.Rsp> attempt = lbClient.requestAsync(hedgeReq);
+              hedge.set(attempt);
+              // the result may have completed meanwhile, without seeing this attempt
+              if (result.isDone()) {
+                attempt.cancel(true);
+              }
+              completeFrom(attempt, result, outstanding, true);
+            });
+    result.whenComplete(
+        (rsp, throwable) -> {
+          primary.cancel(true);
+          CompletableFuture<LBSolrClient.Rsp> attempt = hedge.get();
+          if (attempt != null) {
+            attempt.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private void completeFrom(
+      CompletableFuture<LBSolrClient.Rsp> attempt,
+      CompletableFuture<LBSolrClient.Rsp> result,
+      AtomicInteger outstanding,
+      boolean hedged) {
+    attempt.whenComplete(
+        (rsp, throwable) -> {
+          if (throwable == null) {
+            if (result.complete(rsp) && hedged) {
+              httpShardHandlerFactory.hedgeWins.increment();
+            }
+          } else if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(throwable);
+          }
+        });
+  }
+
   /**
    * Enqueue {@code value} into the {@link #responses} queue iff {@code key} is still tracked in
    * {@link #responseFutureMap}, holding the cancellation monitor so this stays atomic with {@link
@@ -401,6 +505,15 @@ public class HttpShardHandler extends ShardHandler {
           // for a request was received.  Otherwise, we might return the same
           // request more than once.
           rsp.getShardRequest().responses.add(rsp);
+          if (rsp.getShardRequest().responseListener != null) {
+            try {
+              rsp.getShardRequest().responseListener.accept(rsp);
+            } catch (RuntimeException | Error e) {
+              // the caller won't take() the other responses, so don't leave their requests running
+              cancelAll();
+              throw e;
+            }
+          }
 
           if (rsp.getException() != null
               && (bailOnError || disallowPartialResults(rsp.getShardRequest().params))) {
@@ -555,6 +668,10 @@ public class HttpShardHandler extends ShardHandler {
     rb.shards = new String[rb.slices.length];
     for (int i = 0; i < rb.slices.length; i++) {
       rb.shards[i] = createSliceShardsStr(replicaSource.getReplicasBySlice(i));
+      final String collection = replicaSource.getCollection(i);
+      if (collection != null) {
+        shardToCollection.put(rb.shards[i], collection);
+      }
     }
 
     String shards_rows = params.get(ShardParams.SHARDS_ROWS);
@@ -18,7 +18,10 @@ package org.apache.solr.handler.component;
 
 import static org.apache.solr.util.stats.InstrumentedHttpListenerFactory.KNOWN_METRIC_NAME_STRATEGIES;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongCounter;
 import io.opentelemetry.api.metrics.ObservableLongGauge;
 import java.lang.invoke.MethodHandles;
 import java.util.Iterator;
@@ -30,6 +33,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.impl.LBAsyncSolrClient;
@@ -38,6 +42,7 @@ import org.apache.solr.client.solrj.impl.SolrHttpConstants;
 import org.apache.solr.client.solrj.jetty.HttpJettySolrClient;
 import org.apache.solr.client.solrj.jetty.LBJettySolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.routing.AdaptiveReplicaListTransformerFactory;
 import org.apache.solr.client.solrj.routing.AffinityReplicaListTransformerFactory;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformerFactory;
@@ -73,6 +78,8 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
     implements PluginInfoInitialized, SolrMetricProducer {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final String DEFAULT_SCHEME = "http";
+  // at 8KB each, the response times tracked for hedging stay within a few MB
+  private static final int MAX_LATENCY_TRACKERS = 500;
 
   // We want an executor that doesn't take up any resources if
   // it's not used, so it could be created statically for
@@ -88,6 +95,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   protected InstrumentedHttpListenerFactory httpListenerFactory;
   protected LBAsyncSolrClient loadbalancer;
   private ObservableLongGauge asyncRequestsGauge;
+  private ObservableLongCounter hedgedRequestsCounter;
 
   int corePoolSize = 0;
   int maximumPoolSize = Integer.MAX_VALUE;
@@ -96,6 +104,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   int permittedLoadBalancerRequestsMinimumAbsolute = 0;
   float permittedLoadBalancerRequestsMaximumFraction = 1.0f;
   boolean accessPolicy = false;
+  boolean hedgeRequests = false;
+  float hedgePercentile = 95f;
+  int hedgeMinDelay = 5;
   private SolrMetricsContext solrMetricsContext;
 
   private String scheme = null;
@@ -107,6 +118,21 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private RequestReplicaListTransformerGenerator requestReplicaListTransformerGenerator =
       new RequestReplicaListTransformerGenerator();
 
+  // fed the outcome of shard requests when adaptive replica routing is configured
+  private AdaptiveReplicaListTransformerFactory adaptiveRltFactory;
+
+  // shard response times of each request purpose on each collection, or on each shard whose
+  // collection isn't known; the latter come from the shards parameter, so their number is capped
+  private final Cache<LatencyTrackerKey, ShardLatencyTracker> latencyTrackers =
+      Caffeine.newBuilder().executor(Runnable::run).maximumSize(MAX_LATENCY_TRACKERS).build();
+
+  /** The collection (or shard) and {@link ShardRequest#purpose} response times are tracked for */
+  private record LatencyTrackerKey(String target, int purpose) {}
+
+  // hedged requests sent, and how many of them answered before the original request
+  final LongAdder hedgedRequests = new LongAdder();
+  final LongAdder hedgeWins = new LongAdder();
+
   // URL scheme to be used in distributed search.
   static final String INIT_URL_SCHEME = "urlScheme";
 
@@ -134,6 +160,15 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   // Configure if the threadpool favours fairness over throughput
   static final String INIT_FAIRNESS_POLICY = "fairnessPolicy";
 
+  // Send a second request to another replica of a shard that is slow to respond
+  static final String INIT_HEDGE_REQUESTS = "hedgeRequests";
+
+  // The percentile of the collection's recent shard response times after which to hedge
+  static final String INIT_HEDGE_PERCENTILE = "hedgePercentile";
+
+  // The minimum time, in ms, to wait for a response before hedging
+  static final String INIT_HEDGE_MIN_DELAY = "hedgeMinDelay";
+
   /** Get {@link ShardHandler} that uses the default http client. */
   @Override
   public ShardHandler getShardHandler() {
@@ -165,6 +200,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private void initReplicaListTransformers(NamedList<?> routingConfig) {
     String defaultRouting = null;
     ReplicaListTransformerFactory stableRltFactory = null;
+    AdaptiveReplicaListTransformerFactory adaptiveRltFactory = null;
     ReplicaListTransformerFactory defaultRltFactory;
     if (routingConfig != null && routingConfig.size() > 0) {
       Iterator<? extends Entry<String, ?>> iter = routingConfig.iterator();
@@ -185,6 +221,11 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             defaultRouting = checkDefaultReplicaListTransformer(c, key, defaultRouting);
             stableRltFactory = new AffinityReplicaListTransformerFactory(c);
             break;
+          case ShardParams.REPLICA_ADAPTIVE:
+            NamedList<?> ac = getNamedList(e.getValue());
+            defaultRouting = checkDefaultReplicaListTransformer(ac, key, defaultRouting);
+            adaptiveRltFactory = new AdaptiveReplicaListTransformerFactory(ac);
+            break;
           default:
             throw new IllegalArgumentException("invalid replica routing spec name: " + key);
         }
@@ -195,9 +236,12 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
     }
     if (ShardParams.REPLICA_STABLE.equals(defaultRouting)) {
       defaultRltFactory = stableRltFactory;
+    } else if (ShardParams.REPLICA_ADAPTIVE.equals(defaultRouting)) {
+      defaultRltFactory = adaptiveRltFactory;
     } else {
       defaultRltFactory = RequestReplicaListTransformerGenerator.RANDOM_RLTF;
     }
+    this.adaptiveRltFactory = adaptiveRltFactory;
     this.requestReplicaListTransformerGenerator =
         new RequestReplicaListTransformerGenerator(defaultRltFactory, stableRltFactory);
   }
@@ -262,6 +306,14 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             permittedLoadBalancerRequestsMaximumFraction,
             sb);
     this.accessPolicy = getParameter(args, INIT_FAIRNESS_POLICY, accessPolicy, sb);
+    this.hedgeRequests = getParameter(args, INIT_HEDGE_REQUESTS, hedgeRequests, sb);
+    this.hedgePercentile = getParameter(args, INIT_HEDGE_PERCENTILE, hedgePercentile, sb);
+    this.hedgeMinDelay = getParameter(args, INIT_HEDGE_MIN_DELAY, hedgeMinDelay, sb);
+    if (hedgeRequests && (hedgePercentile <= 0 || hedgePercentile > 100)) {
+      throw new SolrException(
+          ErrorCode.SERVER_ERROR,
+          INIT_HEDGE_PERCENTILE + " must be greater than 0 and at most 100: " + hedgePercentile);
+    }
 
     // magic sysprop to make tests reproducible: set by SolrTestCaseJ4.
     String v = System.getProperty("tests.shardhandler.randomSeed");
@@ -354,6 +406,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
       }
     }
     IOUtils.closeQuietly(asyncRequestsGauge);
+    IOUtils.closeQuietly(hedgedRequestsCounter);
     try {
       SolrMetricProducer.super.close();
     } catch (Exception e) {
@@ -378,6 +431,48 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
     return new LBSolrClient.Req(req, endpoints, numServersToTry);
   }
 
+  /**
+   * Returns the factory of the adaptive replica routing, which needs to be told about each shard
+   * request, or null if it isn't configured.
+   */
+  AdaptiveReplicaListTransformerFactory getAdaptiveReplicaListTransformerFactory() {
+    return adaptiveRltFactory;
+  }
+
+  /**
+   * Returns the tracker of the shard response times of requests with the given {@link
+   * ShardRequest#purpose} on the given collection, or on the shard the request is sent to if the
+   * collection is null. Returns null if requests aren't hedged.
+   *
+   * <p>Each purpose has its own tracker, since fetching the top ids, the stored fields or the facet
+   * refinements of a shard take very different times.
+   */
+  ShardLatencyTracker getLatencyTracker(String collection, int purpose, LBSolrClient.Req lbReq) {
+    if (!hedgeRequests) {
+      return null;
+    }
+    // a shard is keyed on its replicas, whatever order they are tried in; a collection name never
+    // contains '/', unlike their urls
+    final String target =
+        collection != null
+            ? collection
+            : lbReq.getEndpoints().stream()
+                .map(LBSolrClient.Endpoint::getUrl)
+                .sorted()
+                .collect(Collectors.joining("|"));
+    return latencyTrackers.get(
+        new LatencyTrackerKey(target, purpose), k -> new ShardLatencyTracker(hedgePercentile));
+  }
+
+  /**
+   * Returns how long, in ms, to wait for a shard response before hedging the request, or -1 if
+   * too few response times were recorded yet to tell.
+   */
+  long getHedgeDelay(ShardLatencyTracker latencyTracker) {
+    long percentile = latencyTracker.getPercentile();
+    return percentile < 0 ? -1 : Math.max(percentile, hedgeMinDelay);
+  }
+
   /**
    * Creates a list of urls for the given shard.
    *
@@ -475,5 +570,17 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
               },
               null);
     }
+    if (hedgeRequests) {
+      hedgedRequestsCounter =
+          solrMetricsContext.observableLongCounter(
+              "solr.shard.hedged_requests",
+              "Shard requests sent again to another replica after a slow response (type=sent),"
+                  + " and how many of those answered first (type=won)",
+              measurement -> {
+                measurement.record(hedgedRequests.sum(), Attributes.of(TYPE_ATTR, "sent"));
+                measurement.record(hedgeWins.sum(), Attributes.of(TYPE_ATTR, "won"));
+              },
+              null);
+    }
   }
 }
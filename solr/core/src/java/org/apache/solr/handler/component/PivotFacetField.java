@@ -153,11 +153,8 @@ public class PivotFacetField {
    * @see PivotFacetFieldValueCollection#trim
    */
   public void trim() {
-    // SOLR-6331...
-    //
-    // we can probably optimize the memory usage by trimming each level of the pivot once
-    // we know we've fully refined the values at that level
-    // (ie: fold this logic into refineNextLevelOfFacets)
+    // levels that were fully refined have already been pruned (SOLR-6331), see
+    // refineNextLevelOfFacets
     this.valueCollection.trim();
   }
 
@@ -325,6 +322,11 @@ public class PivotFacetField {
 
   private void refineNextLevelOfFacets(PivotFacet pf) {
 
+    // the counts at this level are final: drop the values (and their whole sub-pivots) that can't
+    // make it into the response before refining the next level, so the coordinator only holds on
+    // to the part of the tree that is still a candidate
+    valueCollection.pruneRefinedValues();
+
     List<PivotFacetValue> explicitValsToRefine = valueCollection.getNextLevelValuesToRefine();
 
     for (PivotFacetValue value : explicitValsToRefine) {
@@ -107,6 +107,9 @@ public class PivotFacetFieldValueCollection implements Iterable<PivotFacetValue>
    * Returns the appropriate sub-list of the explicit values that need to be refined, based on the
    * {@link FacetParams#FACET_OFFSET} &amp; {@link FacetParams#FACET_LIMIT} for this field.
    *
+   * <p>Must be called after {@link #pruneRefinedValues}, which drops the values that don't meet the
+   * mincount: any viable candidate is then in the first N values.
+   *
    * @see #getExplicitValuesList
    * @see List#subList
    */
@@ -121,27 +124,6 @@ public class PivotFacetFieldValueCollection implements Iterable<PivotFacetValue>
             ? Math.min(facetFieldLimit + facetFieldOffset, numRefinableValues)
             : numRefinableValues;
 
-    if (1 < facetFieldMinimumCount && facetFieldSort.equals(FacetParams.FACET_SORT_INDEX)) {
-      // we have to skip any values that (still) don't meet the mincount
-      //
-      // TODO: in theory we could avoid this extra check by trimming sooner (SOLR-6331)
-      // but since that's a destructive op that blows away the `valuesMap` which we (might?) still
-      // need (and pre-emptively skips the offsets) we're avoiding re-working that optimization for
-      // now until/unless someone gives it more careful thought...
-      final List<PivotFacetValue> results = new ArrayList<>(numRefinableValues);
-      for (PivotFacetValue pivotValue : explicitValues) {
-        if (pivotValue.getCount() >= facetFieldMinimumCount) {
-          results.add(pivotValue);
-          if (numRefinableValues <= results.size()) {
-            break;
-          }
-        }
-      }
-      return results;
-    }
-
-    // in the non "sort==count OR mincount==1" situation, we can just return the first N values
-    // because any viable candidate is already in the top N
     return getExplicitValuesList().subList(facetFieldOffset, offsetPlusCount);
   }
 
@@ -197,12 +179,35 @@ public class PivotFacetFieldValueCollection implements Iterable<PivotFacetValue>
    * @see PivotFacet#getTrimmedPivotsAsListOfNamedLists
    */
   public void trim() { // NOTE: destructive
-    // TODO: see comment in PivotFacetField about potential optimization
-    // (ie: trim as we refine)
     trimNonNullValues();
     trimNullValue();
   }
 
+  /**
+   * Drops the explicit values, along with their sub-pivots, that can no longer be part of the
+   * response once the counts of this collection are fully refined: those that do not meet the
+   * mincount, and those after the first offset + limit values that do. Unlike {@link #trim} the
+   * values that are kept stay in the lookup map, since refinements of deeper levels still merge
+   * into them, and the offset is left for {@link #trim} to skip.
+   *
+   * @see PivotFacetField#queuePivotRefinementRequests
+   */
+  public void pruneRefinedValues() {
+    sortValues();
+    final int maxKept =
+        (facetFieldLimit > 0) ? facetFieldOffset + facetFieldLimit : Integer.MAX_VALUE;
+    final List<PivotFacetValue> keptValues =
+        new ArrayList<>(Math.min(maxKept, explicitValues.size()));
+    for (PivotFacetValue pivotValue : explicitValues) {
+      if (keptValues.size() < maxKept && pivotValue.getCount() >= facetFieldMinimumCount) {
+        keptValues.add(pivotValue);
+      } else {
+        valuesMap.remove(pivotValue.getValue());
+      }
+    }
+    explicitValues = keptValues;
+  }
+
   private void trimNullValue() {
     if (missingValue == null) {
       return;
@@ -256,14 +261,7 @@ public class PivotFacetFieldValueCollection implements Iterable<PivotFacetValue>
    */
   public void sort() {
 
-    if (dirty) {
-      if (facetFieldSort.equals(FacetParams.FACET_SORT_COUNT)) {
-        this.explicitValues.sort(new PivotFacetCountComparator());
-      } else if (facetFieldSort.equals(FacetParams.FACET_SORT_INDEX)) {
-        this.explicitValues.sort(new PivotFacetValueComparator());
-      }
-      dirty = false;
-    }
+    sortValues();
 
     for (PivotFacetValue value : this.explicitValues)
       if (value.getChildPivot() != null) {
@@ -275,6 +273,17 @@ public class PivotFacetFieldValueCollection implements Iterable<PivotFacetValue>
     }
   }
 
+  private void sortValues() {
+    if (dirty) {
+      if (facetFieldSort.equals(FacetParams.FACET_SORT_COUNT)) {
+        this.explicitValues.sort(new PivotFacetCountComparator());
+      } else if (facetFieldSort.equals(FacetParams.FACET_SORT_INDEX)) {
+        this.explicitValues.sort(new PivotFacetValueComparator());
+      }
+      dirty = false;
+    }
+  }
+
   /**
    * Iterator over all elements in this Collection, including the result of {@link #getMissingValue}
    * as the last element (if it exists)
@@ -36,6 +36,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.lucene.index.ExitableDirectoryReader;
 import org.apache.lucene.index.IndexReaderContext;
@@ -86,6 +87,7 @@ import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.DocListAndSet;
 import org.apache.solr.search.DocSlice;
+import org.apache.solr.search.GroupTopDocsBuffer;
 import org.apache.solr.search.Grouping;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QParserPlugin;
@@ -899,6 +901,11 @@ public class QueryComponent extends SearchComponent {
     if (additionalAdded) sreq.params.add(CommonParams.FL, additionalFL.toString());
 
     rb.addRequest(this, sreq);
+
+    if (mergeIdsIncrementally(rb)) {
+      // once the other components have modified the request
+      sreq.responseListener = new ShardIdsMerger(rb, sreq);
+    }
   }
 
   protected boolean addFL(StringBuilder fl, String field, boolean additionalAdded) {
@@ -985,53 +992,104 @@ public class QueryComponent extends SearchComponent {
       }
     }
 
-    SortSpec ss = rb.getSortSpec();
-    Sort sort = ss.getSort();
+    // the responses may already have been merged one by one as they came in, see createMainQuery
+    final ShardIdsMerger merger =
+        sreq.responseListener instanceof ShardIdsMerger m ? m : new ShardIdsMerger(rb, sreq);
+    merger.finish();
+  }
+
+  /**
+   * Whether the responses to the {@link ShardRequest#PURPOSE_GET_TOP_IDS} request may be merged
+   * one by one as the {@link ShardHandler} hands them over, overlapping the merge with waiting for
+   * the slower shards, rather than all at once in {@link #mergeIds}. Subclasses overriding {@link
+   * #mergeIds} should return false.
+   */
+  protected boolean mergeIdsIncrementally(ResponseBuilder rb) {
+    List<MergeStrategy> mergeStrategies = rb.getMergeStrategies();
+    return mergeStrategies == null || mergeStrategies.isEmpty();
+  }
+
+  /**
+   * Merges the top ids of the responses to a {@link ShardRequest#PURPOSE_GET_TOP_IDS} request into
+   * a {@link ShardDocQueue} bounded to {@code start + rows} docs. Responses are merged in the order
+   * of {@link ShardRequest#responses}, so the outcome is the same whether they are merged as they
+   * are added or all at once in {@link #finish()}.
+   */
+  final class ShardIdsMerger implements Consumer<ShardResponse> {
+    private final ResponseBuilder rb;
+    private final ShardRequest sreq;
+    private final SortSpec ss;
+    private final Set<String> scoreDependentFields;
+    private final IndexSchema schema;
+    private final SchemaField uniqueKeyField;
+    private final ShardDocQueue shardDocQueue;
+    private final NamedList<Object> shardInfo;
+
+    /** The number of {@link ShardRequest#responses} merged so far. */
+    private int merged = 0;
+
+    private long numFound = 0;
+    private boolean hitCountIsExact = true;
+    private Float maxScore = null;
+    private boolean thereArePartialResults = false;
+    private Boolean segmentTerminatedEarly = null;
+    private boolean maxHitsTerminatedEarly = false;
+    private long approximateTotalHits = 0;
+    private int failedShardCount = 0;
+    private int failedShardCountForReRankCutoff = 0;
+    private NamedList<Object> reRankCutoffByShard = null;
+
+    ShardIdsMerger(ResponseBuilder rb, ShardRequest sreq) {
+      this.rb = rb;
+      this.sreq = sreq;
+      this.ss = rb.getSortSpec();
+      Sort sort = ss.getSort();
+
+      SortField[] sortFields = null;
+      if (sort != null) sortFields = sort.getSort();
+      else {
+        sortFields = new SortField[] {SortField.FIELD_SCORE};
+      }
+
+      // If the shard request was also used to get fields (along with the scores), there is no
+      // reason to copy over the score dependent fields, since those will already exist in the
+      // document with the return fields
+      if ((sreq.purpose & ShardRequest.PURPOSE_GET_FIELDS) == 0) {
+        scoreDependentFields =
+            rb.rsp.getReturnFields().getScoreDependentReturnFields().keySet().stream()
+                .filter(field -> !field.equals(SolrReturnFields.SCORE))
+                .collect(Collectors.toSet());
+      } else {
+        scoreDependentFields = Set.of();
+      }
+
+      schema = rb.req.getSchema();
+      uniqueKeyField = schema.getUniqueKeyField();
+
+      // Merge the docs via a priority queue so we don't have to sort *all* of the
+      // documents... we only need to order the top (rows+start)
+      shardDocQueue =
+          newShardDocQueue(rb.req.getSearcher(), sortFields, ss.getOffset() + ss.getCount());
+
+      if (rb.req.getParams().getBool(ShardParams.SHARDS_INFO, false)) {
+        shardInfo = new SimpleOrderedMap<>();
+      } else {
+        shardInfo = null;
+      }
+    }
+
+    @Override
+    public void accept(ShardResponse srsp) {
+      mergeAdded();
+    }
 
-    SortField[] sortFields = null;
-    if (sort != null) sortFields = sort.getSort();
-    else {
-      sortFields = new SortField[] {SortField.FIELD_SCORE};
+    private void mergeAdded() {
+      while (merged < sreq.responses.size()) {
+        merge(sreq.responses.get(merged++));
+      }
     }
 
-    // If the shard request was also used to get fields (along with the scores), there is no reason
-    // to copy over the score dependent fields, since those will already exist in the document with
-    // the return fields
-    Set<String> scoreDependentFields;
-    if ((sreq.purpose & ShardRequest.PURPOSE_GET_FIELDS) == 0) {
-      scoreDependentFields =
-          rb.rsp.getReturnFields().getScoreDependentReturnFields().keySet().stream()
-              .filter(field -> !field.equals(SolrReturnFields.SCORE))
-              .collect(Collectors.toSet());
-    } else {
-      scoreDependentFields = Set.of();
-    }
-
-    IndexSchema schema = rb.req.getSchema();
-    SchemaField uniqueKeyField = schema.getUniqueKeyField();
-
-    // Merge the docs via a priority queue so we don't have to sort *all* of the
-    // documents... we only need to order the top (rows+start)
-    final ShardDocQueue shardDocQueue =
-        newShardDocQueue(rb.req.getSearcher(), sortFields, ss.getOffset() + ss.getCount());
-
-    NamedList<Object> shardInfo = null;
-    if (rb.req.getParams().getBool(ShardParams.SHARDS_INFO, false)) {
-      shardInfo = new SimpleOrderedMap<>();
-      rb.rsp.getValues().add(ShardParams.SHARDS_INFO, shardInfo);
-    }
-
-    long numFound = 0;
-    boolean hitCountIsExact = true;
-    Float maxScore = null;
-    boolean thereArePartialResults = false;
-    Boolean segmentTerminatedEarly = null;
-    boolean maxHitsTerminatedEarly = false;
-    long approximateTotalHits = 0;
-    int failedShardCount = 0;
-    int failedShardCountForReRankCutoff = 0;
-    NamedList<Object> reRankCutoffByShard = null;
-    for (ShardResponse srsp : sreq.responses) {
+    private void merge(ShardResponse srsp) {
       SolrDocumentList docs = null;
       NamedList<?> responseHeader = null;
 
@@ -1058,7 +1116,7 @@ public class QueryComponent extends SearchComponent {
                   SolrResponseUtil.getSubsectionFromShardResponse(
                       rb, srsp, "responseHeader", false);
           if (responseHeader == null) {
-            continue;
+            return;
           }
           final Object rhste =
               responseHeader.get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
@@ -1079,7 +1137,7 @@ public class QueryComponent extends SearchComponent {
               (SolrDocumentList)
                   SolrResponseUtil.getSubsectionFromShardResponse(rb, srsp, "response", false);
           if (docs == null) {
-            continue;
+            return;
           }
           nl.add("numFound", docs.getNumFound());
           nl.add("numFoundExact", docs.getNumFoundExact());
@@ -1100,7 +1158,7 @@ public class QueryComponent extends SearchComponent {
       // now that we've added the shard info, let's only proceed if we have no error.
       if (srsp.getException() != null) {
         thereArePartialResults = true;
-        continue;
+        return;
       }
 
       if (docs == null) { // could have been initialized in the shards info block above
@@ -1191,7 +1249,7 @@ public class QueryComponent extends SearchComponent {
       // shard. This avoids an exception below. if the shard returned partial results but we don't
       // need to unmarshal (a normal scoring query), then merge what we got.
       if (thisResponseIsPartial && sortFieldValues.size() == 0 && needsUnmarshalling) {
-        continue;
+        return;
       }
 
       // Checking needsUnmarshalling saves on iterating the SortFields in the SortSpec again.
@@ -1225,63 +1283,74 @@ public class QueryComponent extends SearchComponent {
           numFound--;
         }
       } // end for-each-doc-in-response
-    } // end for-each-response
+    }
 
-    // Add hits for distributed requests
-    // https://issues.apache.org/jira/browse/SOLR-3518
-    rb.rsp.addToLog("hits", numFound);
+    /** Merges the responses not merged yet, and sets the result ids and response docs. */
+    void finish() {
+      if (shardInfo != null) {
+        rb.rsp.getValues().add(ShardParams.SHARDS_INFO, shardInfo);
+      }
+      mergeAdded();
 
-    setResultIdsAndResponseDocs(
-        rb, shardDocQueue, maxScore, numFound, hitCountIsExact, ss.getOffset());
+      // Add hits for distributed requests
+      // https://issues.apache.org/jira/browse/SOLR-3518
+      rb.rsp.addToLog("hits", numFound);
 
-    populateNextCursorMarkFromMergedShards(rb);
+      setResultIdsAndResponseDocs(
+          rb, shardDocQueue, maxScore, numFound, hitCountIsExact, ss.getOffset());
 
-    if (thereArePartialResults) {
-      rb.rsp
-          .getResponseHeader()
-          .asShallowMap()
-          .put(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY, Boolean.TRUE);
-    }
-    if (segmentTerminatedEarly != null) {
-      final Object existingSegmentTerminatedEarly =
-          rb.rsp
-              .getResponseHeader()
-              .get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
-      if (existingSegmentTerminatedEarly == null) {
-        rb.rsp
-            .getResponseHeader()
-            .add(
-                SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY,
-                segmentTerminatedEarly);
-      } else if (!Boolean.TRUE.equals(existingSegmentTerminatedEarly)
-          && Boolean.TRUE.equals(segmentTerminatedEarly)) {
+      populateNextCursorMarkFromMergedShards(rb);
+
+      if (thereArePartialResults) {
         rb.rsp
             .getResponseHeader()
-            .remove(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
+            .asShallowMap()
+            .put(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY, Boolean.TRUE);
+      }
+      if (segmentTerminatedEarly != null) {
+        final Object existingSegmentTerminatedEarly =
+            rb.rsp
+                .getResponseHeader()
+                .get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
+        if (existingSegmentTerminatedEarly == null) {
+          rb.rsp
+              .getResponseHeader()
+              .add(
+                  SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY,
+                  segmentTerminatedEarly);
+        } else if (!Boolean.TRUE.equals(existingSegmentTerminatedEarly)
+            && Boolean.TRUE.equals(segmentTerminatedEarly)) {
+          rb.rsp
+              .getResponseHeader()
+              .remove(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
+          rb.rsp
+              .getResponseHeader()
+              .add(
+                  SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY,
+                  segmentTerminatedEarly);
+        }
+      }
+      if (maxHitsTerminatedEarly) {
         rb.rsp
             .getResponseHeader()
-            .add(
-                SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY,
-                segmentTerminatedEarly);
+            .add(SolrQueryResponse.RESPONSE_HEADER_MAX_HITS_TERMINATED_EARLY_KEY, Boolean.TRUE);
+        if (approximateTotalHits > 0) {
+          rb.rsp
+              .getResponseHeader()
+              .add(
+                  SolrQueryResponse.RESPONSE_HEADER_APPROXIMATE_TOTAL_HITS_KEY,
+                  approximateTotalHits);
+        }
       }
-    }
-    if (maxHitsTerminatedEarly) {
-      rb.rsp
-          .getResponseHeader()
-          .add(SolrQueryResponse.RESPONSE_HEADER_MAX_HITS_TERMINATED_EARLY_KEY, Boolean.TRUE);
-      if (approximateTotalHits > 0) {
+
+      if (reRankCutoffByShard != null) {
         rb.rsp
             .getResponseHeader()
             .add(
-                SolrQueryResponse.RESPONSE_HEADER_APPROXIMATE_TOTAL_HITS_KEY, approximateTotalHits);
+                AbstractReRankQuery.RERANK_CUTOFF_BY_SHARD_RESPONSE_HEADER_KEY,
+                reRankCutoffByShard);
       }
     }
-
-    if (reRankCutoffByShard != null) {
-      rb.rsp
-          .getResponseHeader()
-          .add(AbstractReRankQuery.RERANK_CUTOFF_BY_SHARD_RESPONSE_HEADER_KEY, reRankCutoffByShard);
-    }
   }
 
   protected void setResultIdsAndResponseDocs(
@@ -1856,11 +1925,28 @@ public class QueryComponent extends SearchComponent {
 
     SolrIndexSearcher searcher = req.getSearcher();
 
+    // the collapse filter keeps the top docs of the groups for the ExpandComponent only while it
+    // collects the main search; a cached result would run it without scores, and the expand would
+    // then have to search anyway, so the queryResultCache is bypassed.
+    final GroupTopDocsBuffer groupTopDocs =
+        req.getContext().get(GroupTopDocsBuffer.CONTEXT_KEY) instanceof GroupTopDocsBuffer buffer
+            ? buffer
+            : null;
+    if (groupTopDocs != null) {
+      cmd.setFlags(
+          cmd.getFlags() | SolrIndexSearcher.NO_CHECK_QCACHE | SolrIndexSearcher.NO_SET_QCACHE);
+      groupTopDocs.setCollecting(true);
+    }
+
     QueryResult result;
     try {
       result = searcher.search(cmd);
     } catch (FuzzyTermsEnum.FuzzyTermsException e) {
       throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, e);
+    } finally {
+      if (groupTopDocs != null) {
+        groupTopDocs.setCollecting(false);
+      }
     }
     rb.setResult(result);
 
@@ -33,6 +33,14 @@ interface ReplicaSource {
   /** Get the list of replica urls for a 0-indexed slice number. */
   List<String> getReplicasBySlice(int sliceNumber);
 
+  /**
+   * Get the collection of a 0-indexed slice number, or null if it isn't known, e.g. because its
+   * replica urls were given in the request.
+   */
+  default String getCollection(int sliceNumber) {
+    return null;
+  }
+
   /**
    * @return the count of slices
    */
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the response times of the last {@link #WINDOW} shard requests to a collection (or to a
+ * shard) and serves a percentile of them, which {@link HttpShardHandler} uses as the delay before
+ * hedging a request.
+ *
+ * <p>Recording is lock free and may lose a sample now and then when threads race on the same slot;
+ * that is fine for an estimate.
+ */
+class ShardLatencyTracker {
+  static final int WINDOW = 1024;
+
+  /** No percentile is served until this many response times were recorded. */
+  static final int MIN_SAMPLES = 100;
+
+  /** The percentile is recomputed every this many response times. */
+  static final int RECOMPUTE_INTERVAL = 64;
+
+  private final float percentile;
+  private final long[] latencies = new long[WINDOW];
+  private final AtomicLong count = new AtomicLong();
+  private volatile long current = -1;
+
+  ShardLatencyTracker(float percentile) {
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+    }
+    this.percentile = percentile;
+  }
+
+  void record(long latencyMs) {
+    long n = count.getAndIncrement();
+    latencies[(int) (n % WINDOW)] = latencyMs;
+    n++;
+    if (n >= MIN_SAMPLES && (n % RECOMPUTE_INTERVAL == 0 || current < 0)) {
+      current = compute((int) Math.min(n, WINDOW));
+    }
+  }
+
+  /** The percentile of the recorded response times in ms, or -1 if too few were recorded. */
+  long getPercentile() {
+    return current;
+  }
+
+  private long compute(int size) {
+    long[] sorted = Arrays.copyOf(latencies, size);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100 * size) - 1;
+    return sorted[Math.max(0, Math.min(index, size - 1))];
+  }
+}
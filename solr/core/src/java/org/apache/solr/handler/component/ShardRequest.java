@@ -19,6 +19,7 @@ package org.apache.solr.handler.component;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.apache.solr.common.params.ModifiableSolrParams;
 
 // todo... when finalized make accessors
@@ -51,6 +52,13 @@ public class ShardRequest {
   /** list of responses... filled out by framework */
   public List<ShardResponse> responses = new ArrayList<>();
 
+  /**
+   * Called by the {@link ShardHandler}, on the thread taking the responses, right after each
+   * response is added to {@link #responses}; may be null. If it throws, the outstanding requests
+   * are canceled and the exception is thrown from the take.
+   */
+  public Consumer<ShardResponse> responseListener;
+
   /** actual shards to send the request to, filled out by framework */
   public String[] actualShards;
 
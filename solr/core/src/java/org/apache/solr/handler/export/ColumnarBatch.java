@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.handler.export;
+
+import static org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser.COLUMNS;
+import static org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser.PRESENT;
+import static org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser.ROWS;
+import static org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser.VALUES;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.solr.common.IteratorWriter;
+import org.apache.solr.common.MapWriter;
+
+/**
+ * Collects the values the {@link FieldWriter}s write for the documents of one {@link
+ * ExportBuffers.Buffer} column by column, and writes them as a single record batch. See {@link
+ * org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser} for the format.
+ *
+ * <p>Single-valued numeric and boolean values are kept in primitive arrays so they go over the wire
+ * as javabin primitive arrays, without a tag or field name per value.
+ */
+class ColumnarBatch implements MapWriter, MapWriter.EntryWriter {
+  private final int capacity;
+  private final Map<String, Column> columns = new LinkedHashMap<>();
+  private int rows;
+  private int row = -1;
+
+  ColumnarBatch(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Starts the next row; the values put from now on belong to it. */
+  void startRow() {
+    row = rows++;
+  }
+
+  /**
+   * Empties the batch, keeping the columns (and their arrays) for the next buffer. Stale primitive
+   * values are left in place since they aren't marked present.
+   */
+  void reset() {
+    for (Column column : columns.values()) {
+      column.reset(rows);
+    }
+    rows = 0;
+    row = -1;
+  }
+
+  @Override
+  public void writeMap(EntryWriter ew) throws IOException {
+    ew.put(ROWS, rows);
+    ew.put(
+        COLUMNS,
+        (MapWriter)
+            cw -> {
+              for (Map.Entry<String, Column> e : columns.entrySet()) {
+                Column column = e.getValue();
+                if (column.count > 0) {
+                  cw.put(e.getKey(), (MapWriter) vw -> column.write(vw, rows));
+                }
+              }
+            });
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, Object v) throws IOException {
+    if (v instanceof IteratorWriter iteratorWriter) {
+      // MultiFieldWriter's values are only readable while the doc values are positioned on the doc
+      v = iteratorWriter.toList(new ArrayList<>());
+    }
+    objectColumn(k).set(row, v);
+    return this;
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, int v) throws IOException {
+    if (column(k, IntColumn::new) instanceof IntColumn column) {
+      column.set(row, v);
+      return this;
+    }
+    return put(k, (Object) v);
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, long v) throws IOException {
+    if (column(k, LongColumn::new) instanceof LongColumn column) {
+      column.set(row, v);
+      return this;
+    }
+    return put(k, (Object) v);
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, float v) throws IOException {
+    if (column(k, FloatColumn::new) instanceof FloatColumn column) {
+      column.set(row, v);
+      return this;
+    }
+    return put(k, (Object) v);
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, double v) throws IOException {
+    if (column(k, DoubleColumn::new) instanceof DoubleColumn column) {
+      column.set(row, v);
+      return this;
+    }
+    return put(k, (Object) v);
+  }
+
+  @Override
+  public EntryWriter put(CharSequence k, boolean v) throws IOException {
+    if (column(k, BoolColumn::new) instanceof BoolColumn column) {
+      column.set(row, v);
+      return this;
+    }
+    return put(k, (Object) v);
+  }
+
+  private Column column(CharSequence k, IntFunction<Column> factory) {
+    return columns.computeIfAbsent(k.toString(), name -> factory.apply(capacity));
+  }
+
+  private ObjectColumn objectColumn(CharSequence k) {
+    Column column = column(k, ObjectColumn::new);
+    if (column instanceof ObjectColumn objectColumn) {
+      return objectColumn;
+    }
+    // the same field was written with different types; fall back to boxed values
+    ObjectColumn objectColumn = new ObjectColumn(capacity);
+    for (int i = 0; i < rows; i++) {
+      if (column.isSet(i)) {
+        objectColumn.set(i, column.get(i));
+      }
+    }
+    columns.put(k.toString(), objectColumn);
+    return objectColumn;
+  }
+
+  private abstract static class Column {
+    /** The number of rows having a value. */
+    int count;
+
+    abstract boolean isSet(int row);
+
+    abstract Object get(int row);
+
+    abstract void write(EntryWriter ew, int rows) throws IOException;
+
+    abstract void reset(int rows);
+  }
+
+  private abstract static class PrimitiveColumn extends Column {
+    final FixedBitSet present;
+
+    PrimitiveColumn(int capacity) {
+      present = new FixedBitSet(capacity);
+    }
+
+    void markSet(int row) {
+      present.set(row);
+      count++;
+    }
+
+    @Override
+    boolean isSet(int row) {
+      return present.get(row);
+    }
+
+    @Override
+    void write(EntryWriter ew, int rows) throws IOException {
+      ew.put(VALUES, values(rows));
+      if (count < rows) {
+        ew.put(PRESENT, Arrays.copyOf(present.getBits(), FixedBitSet.bits2words(rows)));
+      }
+    }
+
+    /** The values of the first {@code rows} rows, as a primitive array. */
+    abstract Object values(int rows);
+
+    @Override
+    void reset(int rows) {
+      if (rows > 0) {
+        present.clear(0, rows);
+      }
+      count = 0;
+    }
+  }
+
+  private static final class IntColumn extends PrimitiveColumn {
+    final int[] values;
+
+    IntColumn(int capacity) {
+      super(capacity);
+      values = new int[capacity];
+    }
+
+    void set(int row, int v) {
+      values[row] = v;
+      markSet(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    Object values(int rows) {
+      return Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class LongColumn extends PrimitiveColumn {
+    final long[] values;
+
+    LongColumn(int capacity) {
+      super(capacity);
+      values = new long[capacity];
+    }
+
+    void set(int row, long v) {
+      values[row] = v;
+      markSet(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    Object values(int rows) {
+      return Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class FloatColumn extends PrimitiveColumn {
+    final float[] values;
+
+    FloatColumn(int capacity) {
+      super(capacity);
+      values = new float[capacity];
+    }
+
+    void set(int row, float v) {
+      values[row] = v;
+      markSet(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    Object values(int rows) {
+      return Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class DoubleColumn extends PrimitiveColumn {
+    final double[] values;
+
+    DoubleColumn(int capacity) {
+      super(capacity);
+      values = new double[capacity];
+    }
+
+    void set(int row, double v) {
+      values[row] = v;
+      markSet(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    Object values(int rows) {
+      return Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class BoolColumn extends PrimitiveColumn {
+    final boolean[] values;
+
+    BoolColumn(int capacity) {
+      super(capacity);
+      values = new boolean[capacity];
+    }
+
+    void set(int row, boolean v) {
+      values[row] = v;
+      markSet(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    Object values(int rows) {
+      return Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class ObjectColumn extends Column {
+    final Object[] values;
+
+    ObjectColumn(int capacity) {
+      values = new Object[capacity];
+    }
+
+    void set(int row, Object v) {
+      values[row] = v;
+      count++;
+    }
+
+    @Override
+    boolean isSet(int row) {
+      return values[row] != null;
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    void write(EntryWriter ew, int rows) throws IOException {
+      ew.put(VALUES, Arrays.asList(values).subList(0, rows));
+    }
+
+    @Override
+    void reset(int rows) {
+      Arrays.fill(values, 0, rows, null);
+      count = 0;
+    }
+  }
+}
@@ -60,6 +60,8 @@ class ExportBuffers {
   Buffer outputBuffer;
   Runnable filler;
   ExecutorService service;
+  // sorts the segments in parallel for the filler, null when ExportWriter.sortThreads is 1
+  ExecutorService sortService;
   Throwable error;
   LongAdder outputCounter = new LongAdder();
   volatile boolean shutDown = false;
@@ -96,7 +98,19 @@ class ExportBuffers {
     outputBuffer = bufferTwo;
     SortDoc writerSortDoc = exportWriter.getSortDoc(searcher, sort.getSort());
 
-    MergeIterator mergeIterator = exportWriter.getMergeIterator(leaves, sets, writerSortDoc);
+    if (exportWriter.sortThreads > 1 && leaves.size() > 1) {
+      sortService =
+          ExecutorUtil.newMDCAwareFixedThreadPool(
+              Math.min(exportWriter.sortThreads, leaves.size()),
+              new SolrNamedThreadFactory("ExportBuffers-sort"));
+    }
+    MergeIterator mergeIterator;
+    try {
+      mergeIterator = exportWriter.getMergeIterator(leaves, sets, writerSortDoc, sortService);
+    } catch (Throwable t) {
+      shutdownNow();
+      throw t;
+    }
 
     bufferOne.initialize(writerSortDoc);
     bufferTwo.initialize(writerSortDoc);
@@ -200,6 +214,10 @@ class ExportBuffers {
       service.shutdownNow();
       service = null;
     }
+    if (sortService != null) {
+      sortService.shutdownNow();
+      sortService = null;
+    }
     shutDown = true;
   }
 
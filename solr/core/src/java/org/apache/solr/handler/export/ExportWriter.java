@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -32,6 +33,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedDocValues;
@@ -55,6 +60,7 @@ import org.apache.solr.common.PushWriter;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.params.StreamParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.metrics.SolrMetricsContext;
@@ -94,6 +100,9 @@ import org.slf4j.LoggerFactory;
  * that haven't been sent yet and stores them in a Priority Queue. They are then exported (written
  * across the wire) and marked as sent (unset in the bitmap). This process repeats until all
  * matching documents have been sent.
+ *
+ * <p>With {@code wt=javabin&exportFormat=columnar} each of these batches is written as one
+ * columnar record batch instead of one map per document, see {@link ColumnarBatch}.
  */
 public class ExportWriter implements SolrCore.RawWriter, Closeable {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -101,9 +110,12 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   public static final String BATCH_SIZE_PARAM = "batchSize";
   public static final String QUEUE_SIZE_PARAM = "queueSize";
   public static final String INCLUDE_STORED_FIELDS_PARAM = "includeStoredFields";
+  public static final String SORT_THREADS_PARAM = "sortThreads";
 
   public static final int DEFAULT_BATCH_SIZE = 30000;
   public static final int DEFAULT_QUEUE_SIZE = 150000;
+  public static final int DEFAULT_SORT_THREADS =
+      EnvUtils.getPropertyAsInteger("solr.export.sortThreads", 1);
   private static final FieldWriter EMPTY_FIELD_WRITER =
       new FieldWriter() {
         @Override
@@ -122,6 +134,8 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   final int batchSize;
   // The max combined size of the segment level priority queues.
   private int priorityQueueSize;
+  // The number of threads sorting segments in parallel, 1 sorts them on the filler thread.
+  final int sortThreads;
   StreamExpression streamExpression;
   StreamContext streamContext;
   List<FieldWriter> fieldWriters;
@@ -129,6 +143,8 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   FixedBitSet[] sets = null;
   PushWriter writer;
   private String wt;
+  // write each buffer as a columnar record batch, see ColumnarBatch
+  boolean columnar;
 
   public ExportWriter(
       SolrQueryRequest req,
@@ -144,6 +160,8 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     this.solrMetricsContext = solrMetricsContext;
     this.metricsPath = metricsPath;
     this.priorityQueueSize = req.getParams().getInt(QUEUE_SIZE_PARAM, DEFAULT_QUEUE_SIZE);
+    this.sortThreads =
+        Math.max(1, req.getParams().getInt(SORT_THREADS_PARAM, DEFAULT_SORT_THREADS));
     this.batchSize = DEFAULT_BATCH_SIZE;
   }
 
@@ -303,6 +321,30 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     }
 
     String expr = params.get(StreamParams.EXPR);
+    String exportFormat = params.get(StreamParams.EXPORT_FORMAT);
+    if (exportFormat != null) {
+      if (!StreamParams.COLUMNAR.equals(exportFormat)) {
+        writeException(
+            new IOException(
+                new SyntaxError("Unknown " + StreamParams.EXPORT_FORMAT + ": " + exportFormat)),
+            writer,
+            true);
+        return;
+      }
+      if (!(writer instanceof JavaBinCodec) || expr != null) {
+        writeException(
+            new IOException(
+                new SyntaxError(
+                    StreamParams.EXPORT_FORMAT
+                        + "="
+                        + StreamParams.COLUMNAR
+                        + " requires wt=javabin and no expr")),
+            writer,
+            true);
+        return;
+      }
+      columnar = true;
+    }
     if (expr != null) {
       StreamFactory streamFactory = initialStreamContext.getStreamFactory();
       streamFactory.withDefaultSort(params.get(CommonParams.SORT));
@@ -402,6 +444,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         tupleStream = createTupleStream();
         tupleStream.open();
       } catch (Exception e) {
+        buffers.shutdownNow();
         buffers.getWriter().add((MapWriter) ew -> Tuple.EXCEPTION(e, true).writeMap(ew));
         return;
       }
@@ -435,6 +478,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
           });
       tupleStream.close();
     } else {
+      final ColumnarBatch batch = columnar ? new ColumnarBatch(queueSize) : null;
       buffers.run(
           () -> {
             // get the initial buffer
@@ -447,12 +491,23 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
                 log.debug("--- writer interrupted");
                 break;
               }
-              for (int i = 0; i <= buffer.outDocsIndex; ++i) {
-                // we're using the raw writer here because there's no potential
-                // reduction in the number of output items, unlike when using
-                // streaming expressions
-                final SortDoc currentDoc = buffer.outDocs[i];
-                writer.add((MapWriter) ew -> writeDoc(currentDoc, leaves, ew, fieldWriters));
+              if (batch != null) {
+                // the whole buffer goes out as a single item, with the values of each field
+                // written next to each other
+                batch.reset();
+                for (int i = 0; i <= buffer.outDocsIndex; ++i) {
+                  batch.startRow();
+                  writeDoc(buffer.outDocs[i], leaves, batch, fieldWriters);
+                }
+                writer.add(batch);
+              } else {
+                for (int i = 0; i <= buffer.outDocsIndex; ++i) {
+                  // we're using the raw writer here because there's no potential
+                  // reduction in the number of output items, unlike when using
+                  // streaming expressions
+                  final SortDoc currentDoc = buffer.outDocs[i];
+                  writer.add((MapWriter) ew -> writeDoc(currentDoc, leaves, ew, fieldWriters));
+                }
               }
               // log.debug("--- writer exchanging from {}", buffer);
               long startExchangeBuffers = System.nanoTime();
@@ -754,6 +809,15 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
 
   public MergeIterator getMergeIterator(
       List<LeafReaderContext> leaves, FixedBitSet[] bits, SortDoc sortDoc) throws IOException {
+    return getMergeIterator(leaves, bits, sortDoc, null);
+  }
+
+  /**
+   * @param executor if not null, the segments are sorted in parallel on this executor
+   */
+  MergeIterator getMergeIterator(
+      List<LeafReaderContext> leaves, FixedBitSet[] bits, SortDoc sortDoc, Executor executor)
+      throws IOException {
     try {
       long totalDocs = 0;
       for (int i = 0; i < leaves.size(); i++) {
@@ -797,7 +861,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       for (int i = 0; i < segmentIterators.length; i++) {
         SortQueue sortQueue = new SortQueue(sizes[i], sortDoc.copy());
         segmentIterators[i] =
-            new SegmentIterator(bits[i], leaves.get(i), sortQueue, sortDoc.copy());
+            new SegmentIterator(bits[i], leaves.get(i), sortQueue, sortDoc.copy(), executor);
       }
 
       return new MergeIterator(segmentIterators, sortDoc);
@@ -805,58 +869,109 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     }
   }
 
+  /**
+   * Iterates the matching docs of one segment in sort order, a chunk of the top {@code
+   * sortQueue.maxSize} remaining docs at a time. Each chunk takes a pass over the remaining docs of
+   * the segment. Given an executor, the next chunk is computed there while the current one is
+   * merged, so that the passes over different segments run in parallel; this needs a second queue.
+   */
   private static class SegmentIterator {
 
     private final FixedBitSet bits;
-    private final SortQueue queue;
     private final SortDoc sortDoc;
     private final LeafReaderContext context;
-    private final SortDoc[] outDocs;
+    private final Executor executor;
+
+    // the chunk being merged
+    private Chunk chunk;
+    // the chunk being computed by the executor, if any
+    private Chunk spare;
+    private Future<?> pending;
+    private boolean exhausted;
 
     private SortDoc nextDoc;
-    private int index;
+    private int index = -1;
 
     public SegmentIterator(
-        FixedBitSet bits, LeafReaderContext context, SortQueue sortQueue, SortDoc sortDoc)
+        FixedBitSet bits,
+        LeafReaderContext context,
+        SortQueue sortQueue,
+        SortDoc sortDoc,
+        Executor executor)
         throws IOException {
       this.bits = bits;
-      this.queue = sortQueue;
       this.sortDoc = sortDoc;
       this.nextDoc = sortDoc.copy();
       this.context = context;
-      this.outDocs = new SortDoc[sortQueue.maxSize];
-      topDocs();
+      this.executor = executor;
+      this.chunk = new Chunk(sortQueue);
+      if (executor != null) {
+        this.spare = new Chunk(new SortQueue(sortQueue.maxSize, sortDoc.copy()));
+        prefetch();
+      }
     }
 
     public SortDoc next() throws IOException {
-      SortDoc _sortDoc = null;
-      if (index > -1) {
-        _sortDoc = outDocs[index--];
-      } else {
-        topDocs();
-        if (index > -1) {
-          _sortDoc = outDocs[index--];
-        }
+      if (index < 0 && !nextChunk()) {
+        return null;
       }
+      SortDoc _sortDoc = chunk.outDocs[index--];
 
-      if (_sortDoc != null) {
-        // Clear the bit so it's not loaded again.
-        bits.clear(_sortDoc.docId);
+      // Load the global ordinal (only matters for strings)
+      _sortDoc.setGlobalValues(nextDoc);
 
-        // Load the global ordinal (only matters for strings)
-        _sortDoc.setGlobalValues(nextDoc);
+      nextDoc.setValues(_sortDoc);
+      // We are now done with this doc.
+      _sortDoc.reset();
+      return nextDoc;
+    }
 
-        nextDoc.setValues(_sortDoc);
-        // We are now done with this doc.
-        _sortDoc.reset();
+    private boolean nextChunk() throws IOException {
+      if (exhausted) {
+        return false;
+      }
+      if (pending != null) {
+        try {
+          pending.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        } catch (ExecutionException e) {
+          throw new IOException(e.getCause());
+        }
+        pending = null;
+        Chunk filled = spare;
+        spare = chunk;
+        chunk = filled;
       } else {
-        nextDoc = null;
+        topDocs(chunk);
       }
-      return nextDoc;
+      // a chunk that isn't full took all remaining docs
+      exhausted = chunk.size < chunk.queue.maxSize;
+      if (executor != null && !exhausted) {
+        prefetch();
+      }
+      index = chunk.size - 1;
+      return chunk.size > 0;
+    }
+
+    private void prefetch() {
+      final Chunk target = spare;
+      pending =
+          CompletableFuture.runAsync(
+              () -> {
+                try {
+                  topDocs(target);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              },
+              executor);
     }
 
-    private void topDocs() throws IOException {
+    private void topDocs(Chunk target) throws IOException {
       try {
+        SortQueue queue = target.queue;
         queue.reset();
         SortDoc top = queue.top();
         this.sortDoc.setNextReader(context);
@@ -873,19 +988,33 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         }
 
         // Pop the queue and load up the array.
-        index = -1;
+        int index = -1;
 
         SortDoc _sortDoc;
         while ((_sortDoc = queue.pop()) != null) {
           if (_sortDoc.docId > -1) {
-            outDocs[++index] = _sortDoc;
+            target.outDocs[++index] = _sortDoc;
+            // Clear the bit so it's not loaded again.
+            bits.clear(_sortDoc.docId);
           }
         }
+        target.size = index + 1;
       } catch (Exception e) {
         log.error("Segment Iterator Error:", e);
         throw new IOException(e);
       }
     }
+
+    private static final class Chunk {
+      final SortQueue queue;
+      final SortDoc[] outDocs;
+      int size;
+
+      Chunk(SortQueue queue) {
+        this.queue = queue;
+        this.outDocs = new SortDoc[queue.maxSize];
+      }
+    }
   }
 
   public static class IgnoreException extends IOException {
@@ -74,6 +74,12 @@ public class DocsStreamer implements Iterator<SolrDocument> {
    */
   @Deprecated public static final Set<Class<? extends FieldType>> KNOWN_TYPES = new HashSet<>();
 
+  /**
+   * Documents are fetched this many at a time, through {@link SolrDocumentFetcher#solrDocs}, which
+   * reads them in index order.
+   */
+  static final int FETCH_BATCH_SIZE = 256;
+
   private final ResultContext rctx;
   private final SolrDocumentFetcher docFetcher; // a collaborator of SolrIndexSearcher
   private final DocList docs;
@@ -85,6 +91,11 @@ public class DocsStreamer implements Iterator<SolrDocument> {
 
   private int idx = -1;
 
+  // runs ahead of docIterator, which the transformer may use for the current doc
+  private final DocIterator fetchIterator;
+  private SolrDocument[] fetched;
+  private int fetchedIdx;
+
   public DocsStreamer(ResultContext rctx) {
     this.rctx = rctx;
     this.docs = rctx.getDocList();
@@ -92,6 +103,7 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     docIterator = this.docs.iterator();
     docFetcher = rctx.getDocFetcher();
     solrReturnFields = (SolrReturnFields) rctx.getReturnFields();
+    fetchIterator = docs.size() > 1 ? docs.iterator() : null;
 
     if (transformer != null) {
       transformer.setContext(rctx);
@@ -111,7 +123,15 @@ public class DocsStreamer implements Iterator<SolrDocument> {
   public SolrDocument next() {
     int id = docIterator.nextDoc();
     idx++;
-    SolrDocument sdoc = docFetcher.solrDoc(id, solrReturnFields);
+    final SolrDocument sdoc;
+    if (fetchIterator == null) {
+      sdoc = docFetcher.solrDoc(id, solrReturnFields);
+    } else {
+      if (fetched == null || fetchedIdx == fetched.length) {
+        fetchBatch();
+      }
+      sdoc = fetched[fetchedIdx++];
+    }
 
     if (transformer != null) {
       try {
@@ -124,6 +144,15 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     return sdoc;
   }
 
+  private void fetchBatch() {
+    int[] ids = new int[Math.min(FETCH_BATCH_SIZE, docs.size() - idx)];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = fetchIterator.nextDoc();
+    }
+    fetched = docFetcher.solrDocs(ids, solrReturnFields);
+    fetchedIdx = 0;
+  }
+
   /**
    * This method is less efficient then the 3 arg version because it may convert some fields that
    * are not needed
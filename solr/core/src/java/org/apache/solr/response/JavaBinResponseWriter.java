@@ -38,8 +38,10 @@ import org.apache.solr.common.util.NamedList;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
+import org.apache.solr.search.SolrDocumentFetcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -151,7 +153,38 @@ public class JavaBinResponseWriter implements QueryResponseWriter {
       codec.writeArray(l);
 
       // this is a seprate function so that streaming responses can use just that part
-      writeResultsBody(ctx, codec);
+      if (!writeDocValuesResultsBody(ctx, codec)) {
+        writeResultsBody(ctx, codec);
+      }
+    }
+
+    /**
+     * Writes the documents straight from docValues, with the same bytes {@link #writeResultsBody}
+     * would write, when all the returned fields come from docValues.
+     *
+     * @return false if the documents need to be written by {@link #writeResultsBody}
+     */
+    private boolean writeDocValuesResultsBody(ResultContext ctx, JavaBinCodec codec)
+        throws IOException {
+      SolrDocumentFetcher.DocValuesRow row = ctx.getDocValuesRow();
+      if (row == null) {
+        return false;
+      }
+      DocList docs = ctx.getDocList();
+      codec.writeTag(JavaBinCodec.ARR, docs.size());
+      DocIterator it = docs.iterator();
+      while (it.hasNext()) {
+        int id = it.nextDoc();
+        codec.writeTag(JavaBinCodec.SOLRDOC);
+        codec.writeTag(JavaBinCodec.ORDERED_MAP, row.read(id));
+        for (int i = 0; i < row.size(); i++) {
+          Object value = row.getValue(i);
+          if (value != null) {
+            codec.ew.put(row.getFieldName(i), value);
+          }
+        }
+      }
+      return true;
     }
   }
 
@@ -25,6 +25,7 @@ import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
 import org.apache.solr.search.SolrDocumentFetcher;
 import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.search.SolrReturnFields;
 
 /** A class to hold the QueryResult and the Query */
 public abstract class ResultContext {
@@ -66,5 +67,17 @@ public abstract class ResultContext {
     return new DocsStreamer(this);
   }
 
+  /**
+   * Returns a row reading every field to return straight from docValues, or null if the documents
+   * have to be written from {@link #getProcessedDocuments()}. Contexts that don't read their
+   * documents from {@link #getSearcher()} must return null.
+   */
+  public SolrDocumentFetcher.DocValuesRow getDocValuesRow() {
+    if (getSearcher() == null || !(getReturnFields() instanceof SolrReturnFields srf)) {
+      return null;
+    }
+    return getDocFetcher().docValuesRow(srf);
+  }
+
   public static final ThreadLocal<Predicate<String>> READASBYTES = new ThreadLocal<>();
 }
@@ -36,8 +36,10 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.transform.DocTransformer;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
+import org.apache.solr.search.SolrDocumentFetcher;
 import org.apache.solr.search.SolrReturnFields;
 
 /** Base class for text-oriented response writers. */
@@ -249,6 +251,26 @@ public abstract class TextResponseWriter implements TextWriter {
         res.wantsScores() ? ids.maxScore() : null,
         ids.hitCountRelation() == TotalHits.Relation.EQUAL_TO);
 
+    SolrDocumentFetcher.DocValuesRow row = res.getDocValuesRow();
+    if (row != null) {
+      // all the fields come from docValues: fill a single document, written before the next one
+      SolrDocument doc = new SolrDocument();
+      DocIterator it = ids.iterator();
+      for (int idx = 0; it.hasNext(); idx++) {
+        doc.clear();
+        row.read(it.nextDoc());
+        for (int i = 0; i < row.size(); i++) {
+          Object value = row.getValue(i);
+          if (value != null) {
+            doc.setField(row.getFieldName(i), value);
+          }
+        }
+        writeSolrDocument(null, doc, res.getReturnFields(), idx);
+      }
+      writeEndDocumentList();
+      return;
+    }
+
     int idx = 0;
     while (docsStreamer.hasNext()) {
       writeSolrDocument(null, docsStreamer.next(), res.getReturnFields(), idx);
@@ -41,6 +41,7 @@ import org.apache.solr.search.DocList;
 import org.apache.solr.search.DocSlice;
 import org.apache.solr.search.JoinQParserPlugin;
 import org.apache.solr.search.ReturnFields;
+import org.apache.solr.search.SolrDocumentFetcher;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SolrReturnFields;
 import org.apache.solr.search.TermsQParserPlugin;
@@ -178,6 +179,11 @@ class SubQueryAugmenter extends DocTransformer {
       return justWantAllFields.wantsScore();
     }
 
+    @Override
+    public SolrDocumentFetcher.DocValuesRow getDocValuesRow() {
+      return null; // the documents were already fetched by the subquery
+    }
+
     @Override
     public DocList getDocList() {
       return new DocSlice(
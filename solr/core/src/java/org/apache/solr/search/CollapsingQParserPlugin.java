@@ -467,6 +467,16 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
 
         boostDocsMap = QueryElevationComponent.getBoostDocs(searcher, this.boosted, context);
+
+        // the members of the groups with elevated docs would differ from what the expand finds
+        GroupTopDocsBuffer groupTopDocs = null;
+        if (context != null
+            && (boostDocsMap == null || boostDocsMap.isEmpty())
+            && context.get(GroupTopDocsBuffer.CONTEXT_KEY) instanceof GroupTopDocsBuffer buffer
+            && buffer.isFor(this)
+            && buffer.isCollecting()) {
+          groupTopDocs = buffer;
+        }
         return collectorFactory.getCollector(
             this.collapseField,
             this.groupHeadSelector,
@@ -477,6 +487,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
             this.needsScores,
             this.size,
             boostDocsMap,
+            groupTopDocs,
             searcher);
 
       } catch (IOException e) {
@@ -606,6 +617,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private int nullDoc = -1;
     private boolean collectElevatedDocsWhenCollapsing;
     private FloatArrayList nullScores;
+    private final GroupTopDocsBuffer groupTopDocs;
 
     private final BoostedDocsCollector boostedDocsCollector;
 
@@ -616,7 +628,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         int nullPolicy,
         IntIntHashMap boostDocsMap,
         IndexSearcher searcher,
-        boolean collectElevatedDocsWhenCollapsing)
+        boolean collectElevatedDocsWhenCollapsing,
+        GroupTopDocsBuffer groupTopDocs)
         throws IOException {
       this.maxDoc = maxDoc;
       this.contexts = new LeafReaderContext[segments];
@@ -642,6 +655,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         nullScores = new FloatArrayList();
       }
       this.boostedDocsCollector = BoostedDocsCollector.build(boostDocsMap);
+      this.groupTopDocs = groupTopDocs;
+      if (groupTopDocs != null) {
+        groupTopDocs.start();
+      }
     }
 
     @Override
@@ -696,6 +713,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           ords.put(ord, globalDoc);
           scores.put(ord, score);
         }
+        if (groupTopDocs != null) {
+          groupTopDocs.collect(ord, globalDoc, score);
+        }
       } else if (nullPolicy == NullPolicy.COLLAPSE.getCode()) {
         float score = scorer.score();
         if (score > nullScore) {
@@ -710,6 +730,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     @Override
     public void complete() throws IOException {
+      if (groupTopDocs != null) {
+        groupTopDocs.finish();
+      }
       if (contexts.length == 0) {
         return;
       }
@@ -823,6 +846,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private FloatArrayList nullScores;
     private String field;
     private boolean collectElevatedDocsWhenCollapsing;
+    private final GroupTopDocsBuffer groupTopDocs;
 
     private final BoostedDocsCollector boostedDocsCollector;
 
@@ -834,7 +858,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         String field,
         IntIntHashMap boostDocsMap,
         IndexSearcher searcher,
-        boolean collectElevatedDocsWhenCollapsing) {
+        boolean collectElevatedDocsWhenCollapsing,
+        GroupTopDocsBuffer groupTopDocs) {
       this.maxDoc = maxDoc;
       this.contexts = new LeafReaderContext[segments];
       this.collectElevatedDocsWhenCollapsing = collectElevatedDocsWhenCollapsing;
@@ -852,6 +877,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.field = field;
 
       this.boostedDocsCollector = BoostedDocsCollector.build(boostDocsMap);
+      this.groupTopDocs = groupTopDocs;
+      if (groupTopDocs != null) {
+        groupTopDocs.start();
+      }
     }
 
     @Override
@@ -893,6 +922,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           long scoreDoc = (((long) Float.floatToRawIntBits(score)) << 32) + globalDoc;
           cmap.indexInsert(idx, collapseValue, scoreDoc);
         }
+        if (groupTopDocs != null) {
+          groupTopDocs.collect(collapseValue, globalDoc, score);
+        }
 
       } else { // Null Group...
 
@@ -917,6 +949,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     @Override
     public void complete() throws IOException {
+      if (groupTopDocs != null) {
+        groupTopDocs.finish();
+      }
       if (contexts.length == 0) {
         return;
       }
@@ -2059,6 +2094,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         boolean needsScores,
         int size,
         IntIntHashMap boostDocs,
+        GroupTopDocsBuffer groupTopDocs,
         SolrIndexSearcher searcher)
         throws IOException {
 
@@ -2155,7 +2191,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               nullPolicy,
               boostDocs,
               searcher,
-              collectElevatedDocsWhenCollapsing);
+              collectElevatedDocsWhenCollapsing,
+              groupTopDocs);
 
         } else if (isNumericCollapsible(collapseFieldType)) {
           if (blockCollapse) {
@@ -2170,7 +2207,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               collapseField,
               boostDocs,
               searcher,
-              collectElevatedDocsWhenCollapsing);
+              collectElevatedDocsWhenCollapsing,
+              groupTopDocs);
 
         } else {
           throw new SolrException(
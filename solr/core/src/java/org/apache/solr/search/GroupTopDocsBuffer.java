@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * The top scoring documents of each group, kept by the score based collapse collectors while they
+ * select the group heads, so that the {@link org.apache.solr.handler.component.ExpandComponent}
+ * does not have to search again for the members of the groups.
+ *
+ * <p>A group is identified by the key its collector uses: the global ord of a String collapse
+ * field, or the int value (the raw int bits of a float) of a numeric one. Documents are ordered by
+ * descending score then ascending doc id, as by a {@link
+ * org.apache.lucene.search.TopScoreDocCollector}. Only the first {@code size} documents of each
+ * group are kept, along with the number of documents collected for the group. Most groups hold a
+ * single document, so the best one of each group is kept in flat arrays, and room for the others is
+ * only allocated, and grown, once a group has more.
+ *
+ * <p>The ExpandComponent puts a buffer in the request context under {@link #CONTEXT_KEY}; the
+ * collector of the collapse filter it was created for fills it, but only while the buffer {@link
+ * #isCollecting() is collecting}. The QueryComponent turns that on for its main search only, since
+ * other searches running the same collapse filter (like a cached main query's DocSet or faceting
+ * with excluded filters) don't score the documents or match others.
+ *
+ * @lucene.internal
+ */
+public final class GroupTopDocsBuffer {
+  public static final String CONTEXT_KEY = "collapse.groupTopDocs";
+
+  /** The maximum number of documents kept per group. */
+  public static final int MAX_SIZE = 64;
+
+  // room first allocated for the documents of a group after its best one
+  private static final int INITIAL_REST_SIZE = 3;
+
+  private final Query collapseFilter;
+  private final int size;
+  private final IntIntHashMap slots = new IntIntHashMap();
+  // per slot: the number of documents collected, the best document, and the next best ones
+  private int[] counts = new int[0];
+  private int[] headDocs = new int[0];
+  private float[] headScores = new float[0];
+  private int[][] restDocs = new int[0][];
+  private float[][] restScores = new float[0][];
+  private boolean collecting;
+  private boolean complete;
+
+  public GroupTopDocsBuffer(Query collapseFilter, int size) {
+    if (size < 1 || size > MAX_SIZE) {
+      throw new IllegalArgumentException("size must be in [1, " + MAX_SIZE + "]: " + size);
+    }
+    this.collapseFilter = collapseFilter;
+    this.size = size;
+  }
+
+  /** Whether this buffer is meant to be filled by the collector of the given collapse filter. */
+  public boolean isFor(Query filter) {
+    return filter == collapseFilter;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /** Whether a collector collected all the matching documents of the main search. */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /** Whether a collector of the collapse filter should fill this buffer. */
+  public boolean isCollecting() {
+    return collecting;
+  }
+
+  /** Turned on by the QueryComponent for the duration of its main search. */
+  public void setCollecting(boolean collecting) {
+    this.collecting = collecting;
+  }
+
+  /** Clears the buffer before a collector collects the matching documents. */
+  void start() {
+    slots.clear();
+    complete = false;
+  }
+
+  void finish() {
+    complete = true;
+  }
+
+  /** Adds a document of the group; documents must be collected in increasing doc id order. */
+  void collect(int group, int globalDoc, float score) {
+    final int slot;
+    final int index = slots.indexOf(group);
+    if (index >= 0) {
+      slot = slots.indexGet(index);
+    } else {
+      slot = slots.size();
+      slots.indexInsert(index, group, slot);
+      if (slot == counts.length) {
+        counts = ArrayUtil.grow(counts, slot + 1);
+        headDocs = ArrayUtil.growExact(headDocs, counts.length);
+        headScores = ArrayUtil.growExact(headScores, counts.length);
+        restDocs = ArrayUtil.growExact(restDocs, counts.length);
+        restScores = ArrayUtil.growExact(restScores, counts.length);
+      }
+      counts[slot] = 0;
+    }
+
+    final int kept = Math.min(counts[slot]++, size);
+    // ties keep the document collected first, which has the lower doc id
+    if (kept == size && score <= getScore(slot, size - 1)) {
+      return;
+    }
+    int pos = kept == size ? size - 1 : kept;
+    if (pos > 0) {
+      ensureRestCapacity(slot, pos);
+    }
+    while (pos > 0 && getScore(slot, pos - 1) < score) {
+      set(slot, pos, getDoc(slot, pos - 1), getScore(slot, pos - 1));
+      pos--;
+    }
+    set(slot, pos, globalDoc, score);
+  }
+
+  /** Makes room for {@code n} documents of the group after its best one. */
+  private void ensureRestCapacity(int slot, int n) {
+    final int[] docs = restDocs[slot];
+    if (docs != null && docs.length >= n) {
+      return;
+    }
+    final int newLength =
+        Math.min(size - 1, Math.max(n, docs == null ? INITIAL_REST_SIZE : docs.length * 2));
+    if (docs == null) {
+      restDocs[slot] = new int[newLength];
+      restScores[slot] = new float[newLength];
+    } else {
+      restDocs[slot] = ArrayUtil.growExact(docs, newLength);
+      restScores[slot] = ArrayUtil.growExact(restScores[slot], newLength);
+    }
+  }
+
+  private int getDoc(int slot, int pos) {
+    return pos == 0 ? headDocs[slot] : restDocs[slot][pos - 1];
+  }
+
+  private float getScore(int slot, int pos) {
+    return pos == 0 ? headScores[slot] : restScores[slot][pos - 1];
+  }
+
+  private void set(int slot, int pos, int doc, float score) {
+    if (pos == 0) {
+      headDocs[slot] = doc;
+      headScores[slot] = score;
+    } else {
+      restDocs[slot][pos - 1] = doc;
+      restScores[slot][pos - 1] = score;
+    }
+  }
+
+  /** The number of documents collected for the group. */
+  public int getCount(int group) {
+    final int index = slots.indexOf(group);
+    return index >= 0 ? counts[slots.indexGet(index)] : 0;
+  }
+
+  /**
+   * Copies the global doc ids and scores of the top documents of the group, best first, into the
+   * given arrays of at least {@link #getSize()} length.
+   *
+   * @return the number of documents copied
+   */
+  public int getTopDocs(int group, int[] docsOut, float[] scoresOut) {
+    final int index = slots.indexOf(group);
+    if (index < 0) {
+      return 0;
+    }
+    final int slot = slots.indexGet(index);
+    final int kept = Math.min(counts[slot], size);
+    if (kept > 0) {
+      docsOut[0] = headDocs[slot];
+      scoresOut[0] = headScores[slot];
+    }
+    if (kept > 1) {
+      System.arraycopy(restDocs[slot], 0, docsOut, 1, kept - 1);
+      System.arraycopy(restScores[slot], 0, scoresOut, 1, kept - 1);
+    }
+    return kept;
+  }
+}
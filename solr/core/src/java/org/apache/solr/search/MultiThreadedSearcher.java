@@ -49,6 +49,7 @@ public class MultiThreadedSearcher {
   SearchResult searchCollectorManagers(
       int len,
       QueryCommand cmd,
+      int minExactCount,
       Query query,
       boolean needTopDocs,
       boolean needMaxScore,
@@ -79,7 +80,8 @@ public class MultiThreadedSearcher {
 
     if (needTopDocs) {
 
-      collectors.add(new TopDocsCM(len, cmd, firstCollectors, firstTopDocsCollectorIndex));
+      collectors.add(
+          new TopDocsCM(len, cmd, minExactCount, firstCollectors, firstTopDocsCollectorIndex));
     }
     if (needMaxScore) {
       collectors.add(new MaxScoreCM(firstCollectors, firstMaxScoreCollectorIndex));
@@ -303,13 +305,19 @@ public class MultiThreadedSearcher {
   private class TopDocsCM implements CollectorManager<Collector, Object> {
     private final int len;
     private final QueryCommand cmd;
+    private final int minExactCount;
     private final Collector[] firstCollectors;
     private final int firstTopDocsCollectorIndex;
 
     public TopDocsCM(
-        int len, QueryCommand cmd, Collector[] firstCollectors, int firstTopDocsCollectorIndex) {
+        int len,
+        QueryCommand cmd,
+        int minExactCount,
+        Collector[] firstCollectors,
+        int firstTopDocsCollectorIndex) {
       this.len = len;
       this.cmd = cmd;
+      this.minExactCount = minExactCount;
       this.firstCollectors = firstCollectors;
       this.firstTopDocsCollectorIndex = firstTopDocsCollectorIndex;
     }
@@ -317,7 +325,7 @@ public class MultiThreadedSearcher {
     @Override
     public Collector newCollector() throws IOException {
       @SuppressWarnings("rawtypes")
-      TopDocsCollector collector = searcher.buildTopDocsCollector(len, cmd);
+      TopDocsCollector collector = searcher.buildTopDocsCollector(len, cmd, minExactCount);
       if (firstCollectors[firstTopDocsCollectorIndex] == null) {
         firstCollectors[firstTopDocsCollectorIndex] = collector;
       }
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.IOSupplier;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.core.SolrInfoBean.Category;
+import org.apache.solr.metrics.SolrMetricProducer;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+
+/**
+ * Base class of the per-segment caches shared by all searchers of a core, such as {@link
+ * SegmentFilterCache}. Entries are keyed on a segment plus a query (and optionally a field) and are
+ * dropped when the segment is closed.
+ *
+ * <p>A query is only cached per segment if its {@link Weight#isCacheable(LeafReaderContext)} is
+ * true on every segment and it contains no {@link SolrSearcherRequirer} or {@link DocSetProducer},
+ * at any depth. Solr has never used Lucene's query cache, so these queries were not written for
+ * that contract: some of them (e.g. graph queries or {@link DocSetQuery}) match documents of a
+ * segment depending on the rest of the index.
+ *
+ * @param <V> the cached per-segment values
+ * @lucene.experimental
+ */
+public abstract class SegmentCache<V> implements Accountable, SolrMetricProducer {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(SegmentCache.class);
+
+  /** Cache key: a segment plus the (unwrapped, positive) query and an optional field. */
+  protected static final class Key implements Accountable {
+    final IndexReader.CacheKey segmentKey;
+    final String field;
+    final Query query;
+    final int hashCode;
+
+    public Key(IndexReader.CacheKey segmentKey, String field, Query query) {
+      this.segmentKey = segmentKey;
+      this.field = field;
+      this.query = query;
+      this.hashCode =
+          31 * (31 * System.identityHashCode(segmentKey) + (field == null ? 0 : field.hashCode()))
+              + query.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return segmentKey == other.segmentKey
+          && (field == null ? other.field == null : field.equals(other.field))
+          && query.equals(other.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+          + 4L * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+          + (field == null ? 0 : RamUsageEstimator.sizeOf(field))
+          + RamUsageEstimator.sizeOfObject(query, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+    }
+  }
+
+  /** Detects queries that need the whole index, see the class javadocs. */
+  private static final class WholeIndexQueryDetector extends SolrSearcherRequirementDetector {
+    private boolean docSetProducer = false;
+
+    @Override
+    public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+      if (parent instanceof DocSetProducer) {
+        docSetProducer = true;
+      }
+      return super.getSubVisitor(occur, parent);
+    }
+
+    @Override
+    public void visitLeaf(Query query) {
+      if (query instanceof DocSetProducer) {
+        docSetProducer = true;
+      }
+      super.visitLeaf(query);
+    }
+
+    boolean needsWholeIndex() {
+      return docSetProducer || getRequiresSolrSearcher();
+    }
+  }
+
+  private final long maxRamBytes;
+  private final String metricName;
+  private final Cache<Key, V> cache;
+  private final Map<IndexReader.CacheKey, Boolean> registeredSegments = new ConcurrentHashMap<>();
+  private final LongAdder ramBytes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder lookups = new LongAdder();
+
+  private SolrMetricsContext solrMetricsContext;
+
+  protected SegmentCache(long maxRamBytes, String metricName) {
+    this.maxRamBytes = maxRamBytes;
+    this.metricName = metricName;
+    this.cache =
+        Caffeine.newBuilder()
+            .executor(Runnable::run)
+            .maximumWeight(maxRamBytes)
+            .<Key, V>weigher(
+                (k, v) -> (int) Math.min(Integer.MAX_VALUE, k.ramBytesUsed() + sizeOf(v)))
+            .<Key, V>removalListener(
+                (k, v, cause) -> {
+                  if (k != null && v != null) {
+                    ramBytes.add(-(k.ramBytesUsed() + sizeOf(v)));
+                  }
+                })
+            .build();
+  }
+
+  /** The helper whose key identifies the entries of a segment. */
+  protected abstract IndexReader.CacheHelper getCacheHelper(LeafReader reader);
+
+  /** The RAM used by a cached value. */
+  protected abstract long sizeOf(V value);
+
+  /** Whether the query contains a {@link SolrSearcherRequirer} or a {@link DocSetProducer}. */
+  public static boolean needsWholeIndex(Query query) {
+    WholeIndexQueryDetector detector = new WholeIndexQueryDetector();
+    query.visit(detector);
+    return detector.needsWholeIndex();
+  }
+
+  /**
+   * Creates a non-scoring weight of the query if its matches on each segment only depend on that
+   * segment, so that values computed from them can be cached per segment.
+   *
+   * @return the weight, or null if the query can't be cached per segment
+   */
+  protected Weight createCacheableWeight(SolrIndexSearcher searcher, Query query)
+      throws IOException {
+    if (needsWholeIndex(query)) {
+      return null;
+    }
+    final Query rewritten = searcher.rewrite(query);
+    if (rewritten != query && needsWholeIndex(rewritten)) {
+      return null;
+    }
+    final Weight weight = searcher.createWeight(rewritten, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    for (LeafReaderContext ctx : searcher.getTopReaderContext().leaves()) {
+      if (getCacheHelper(ctx.reader()) == null || !weight.isCacheable(ctx)) {
+        return null;
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * Returns the key of the segment, registering to drop its entries when it is closed.
+   *
+   * @see #createCacheableWeight
+   */
+  protected IndexReader.CacheKey getSegmentKey(LeafReaderContext ctx) {
+    final IndexReader.CacheHelper cacheHelper = getCacheHelper(ctx.reader());
+    final IndexReader.CacheKey segmentKey = cacheHelper.getKey();
+    if (registeredSegments.putIfAbsent(segmentKey, Boolean.TRUE) == null) {
+      cacheHelper.addClosedListener(this::onSegmentClosed);
+    }
+    return segmentKey;
+  }
+
+  /** Returns the cached value of the key, computing it if needed. */
+  protected V get(Key key, IOSupplier<V> computer) throws IOException {
+    lookups.increment();
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    try {
+      return cache.get(
+          key,
+          k -> {
+            try {
+              V computed = computer.get();
+              ramBytes.add(k.ramBytesUsed() + sizeOf(computed));
+              return computed;
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void onSegmentClosed(IndexReader.CacheKey segmentKey) {
+    registeredSegments.remove(segmentKey);
+    cache.asMap().keySet().removeIf(k -> k.segmentKey == segmentKey);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getLookups() {
+    return lookups.sum();
+  }
+
+  public int size() {
+    return cache.asMap().size();
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+    cache.cleanUp();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + ramBytes.sum();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRamMB=" + (maxRamBytes / 1024L / 1024L) + ")";
+  }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, Attributes attributes) {
+    this.solrMetricsContext = parentContext.getChildContext(this);
+    Attributes cacheAttributes =
+        attributes.toBuilder().put(CATEGORY_ATTR, Category.CACHE.toString()).build();
+
+    ObservableLongMeasurement lookupsMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + ".lookups", "Number of cumulative segment lookups (hits and misses)");
+    ObservableLongMeasurement sizeMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + ".size", "Current number of cached segment entries");
+    ObservableLongMeasurement ramBytesUsedMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + ".ram_used", "RAM bytes used by cache", OtelUnit.BYTES);
+
+    solrMetricsContext.batchCallback(
+        () -> {
+          long hitCount = hits.sum();
+          lookupsMetric.record(
+              hitCount, cacheAttributes.toBuilder().put(RESULT_ATTR, "hit").build());
+          lookupsMetric.record(
+              lookups.sum() - hitCount,
+              cacheAttributes.toBuilder().put(RESULT_ATTR, "miss").build());
+          sizeMetric.record(cache.asMap().size(), cacheAttributes);
+          ramBytesUsedMetric.record(ramBytesUsed(), cacheAttributes);
+        },
+        lookupsMetric,
+        sizeMetric,
+        ramBytesUsedMetric);
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return solrMetricsContext;
+  }
+
+  @Override
+  public void close() throws IOException {
+    clear();
+    registeredSegments.clear();
+    SolrMetricProducer.super.close();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * A filter cache keyed on segment core plus query, shared by all searchers of a core. Unlike the
+ * top-level filterCache, entries survive commits: after a new searcher is opened only the new
+ * segments need to be computed, which makes filterCache misses (and hence autowarming) cheap when
+ * NRT commits are frequent.
+ *
+ * <p>Each entry holds the matches of a query on one segment <em>without</em> deletions applied,
+ * since deletions can change across searchers while the segment core stays the same. Live docs are
+ * applied when the top-level {@link DocSet} is assembled. Entries for a segment are dropped when
+ * the segment core is closed.
+ *
+ * <p>Only queries that {@link SegmentCache} deems cacheable per segment are cached here; others
+ * (e.g. joins or graph queries, which depend on the whole index) are computed as usual. Configured
+ * in solrconfig.xml with {@code <segmentFilterCache maxRamMB="..."/>} in the {@code <query>}
+ * section.
+ *
+ * @lucene.experimental
+ */
+public class SegmentFilterCache extends SegmentCache<DocIdSet> {
+
+  public static final String MAX_RAM_MB_PARAM = "maxRamMB";
+  public static final int DEFAULT_MAX_RAM_MB = 256;
+
+  public SegmentFilterCache(long maxRamBytes) {
+    super(maxRamBytes, "solr.segment_filter_cache");
+  }
+
+  @Override
+  protected IndexReader.CacheHelper getCacheHelper(LeafReader reader) {
+    return reader.getCoreCacheHelper();
+  }
+
+  @Override
+  protected long sizeOf(DocIdSet value) {
+    return value.ramBytesUsed();
+  }
+
+  /**
+   * Computes the top-level DocSet for the query, reusing cached per-segment matches where
+   * possible.
+   *
+   * @param query an unwrapped, positive query
+   * @return the DocSet, or null if the query cannot be cached per-segment, in which case the caller
+   *     should compute it in the usual way.
+   */
+  public DocSet getDocSet(SolrIndexSearcher searcher, Query query) throws IOException {
+    final Weight weight = createCacheableWeight(searcher, query);
+    if (weight == null) {
+      return null;
+    }
+
+    final List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    final int maxDoc = searcher.maxDoc();
+    final FixedBitSet bits = new FixedBitSet(maxDoc);
+    int size = 0;
+    for (LeafReaderContext ctx : leaves) {
+      DocIdSet slice =
+          get(new Key(getSegmentKey(ctx), null, query), () -> computeSlice(weight, ctx));
+      DocIdSetIterator it = slice.iterator();
+      if (it == null) continue;
+      final Bits liveDocs = ctx.reader().getLiveDocs();
+      final int base = ctx.docBase;
+      for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+        if (liveDocs != null && !liveDocs.get(doc)) continue;
+        bits.set(base + doc);
+        size++;
+      }
+    }
+
+    BitDocSet answer = new BitDocSet(bits, size);
+    if (size < DocSetUtil.smallSetSize(maxDoc)) {
+      return DocSetUtil.toSmallSet(answer);
+    }
+    return DocSetUtil.getDocSet(answer, searcher);
+  }
+
+  private static DocIdSet computeSlice(Weight weight, LeafReaderContext ctx) throws IOException {
+    Scorer scorer = weight.scorer(ctx);
+    if (scorer == null) {
+      return DocIdSet.EMPTY;
+    }
+    // note: deletions are deliberately not applied; see class javadocs
+    DocIdSetBuilder builder = new DocIdSetBuilder(ctx.reader().maxDoc());
+    builder.add(scorer.iterator());
+    return builder.build();
+  }
+}
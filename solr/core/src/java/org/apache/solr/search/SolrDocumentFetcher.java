@@ -341,6 +341,108 @@ public class SolrDocumentFetcher {
     return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDoc(luceneDocId);
   }
 
+  /**
+   * Like {@link #solrDoc(int, SolrReturnFields)} for several documents at once. The documents are
+   * read in index order, so that consecutive documents of a segment share the stored fields block
+   * it decompressed and the docValues iterators only move forward, and are returned in the order of
+   * the given ids.
+   */
+  public SolrDocument[] solrDocs(int[] luceneDocIds, SolrReturnFields solrReturnFields) {
+    final RetrieveFieldsOptimizer rfo =
+        solrReturnFields.getFetchOptimizer(() -> new RetrieveFieldsOptimizer(solrReturnFields));
+    // doc id in the high bits, position in the low bits
+    final long[] order = new long[luceneDocIds.length];
+    for (int i = 0; i < luceneDocIds.length; i++) {
+      order[i] = ((long) luceneDocIds[i] << 32) | i;
+    }
+    Arrays.sort(order);
+    final SolrDocument[] sdocs = new SolrDocument[luceneDocIds.length];
+    for (long docAndPos : order) {
+      sdocs[(int) docAndPos] = rfo.getSolrDoc((int) (docAndPos >>> 32));
+    }
+    return sdocs;
+  }
+
+  /**
+   * Returns a {@link DocValuesRow} to read the documents of a result with, when all the fields to
+   * return for them come from docValues and no transformer applies; null otherwise.
+   */
+  public DocValuesRow docValuesRow(SolrReturnFields solrReturnFields) {
+    if (solrReturnFields.getTransformer() != null) {
+      return null;
+    }
+    final RetrieveFieldsOptimizer rfo =
+        solrReturnFields.getFetchOptimizer(() -> new RetrieveFieldsOptimizer(solrReturnFields));
+    if (rfo.returnStoredFields()) {
+      return null;
+    }
+    solrReturnFields.setFieldSources(SolrReturnFields.FIELD_SOURCES.ALL_FROM_DV);
+    final List<String> fieldNames = new ArrayList<>(rfo.getDvFields().size());
+    for (String fieldName : rfo.getDvFields()) {
+      if (solrReturnFields.wantsField(fieldName)) {
+        fieldNames.add(fieldName);
+      }
+    }
+    return new DocValuesRow(fieldNames, rfo.reuseDvIters);
+  }
+
+  /**
+   * Reads the fields to return for documents straight from docValues into reused arrays, for
+   * response writers to write without building a {@link SolrDocument} per document. The values
+   * are the same that {@link #solrDoc(int, SolrReturnFields)} would return.
+   */
+  public class DocValuesRow {
+    private final String[] fieldNames;
+    private final DocValuesIteratorCache.FieldDocValuesSupplier[] suppliers;
+    private final Object[] values;
+    private final List<LeafReaderContext> leafContexts = searcher.getLeafContexts();
+
+    private DocValuesRow(List<String> fieldNames, DocValuesIteratorCache reuseDvIters) {
+      this.fieldNames = fieldNames.toArray(new String[0]);
+      this.suppliers = new DocValuesIteratorCache.FieldDocValuesSupplier[this.fieldNames.length];
+      for (int i = 0; i < suppliers.length; i++) {
+        suppliers[i] = reuseDvIters.getSupplier(this.fieldNames[i]);
+      }
+      this.values = new Object[this.fieldNames.length];
+    }
+
+    /**
+     * Reads the values of a document.
+     *
+     * @return the number of fields the document has a value for
+     */
+    public int read(int luceneDocId) throws IOException {
+      final int subIndex = ReaderUtil.subIndex(luceneDocId, leafContexts);
+      final LeafReaderContext leaf = leafContexts.get(subIndex);
+      final int localId = luceneDocId - leaf.docBase;
+      int count = 0;
+      for (int i = 0; i < suppliers.length; i++) {
+        values[i] =
+            suppliers[i] == null
+                ? null
+                : decodeDVField(localId, leaf.reader(), subIndex, suppliers[i]);
+        if (values[i] != null) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /** The number of fields, including those the current document has no value for. */
+    public int size() {
+      return fieldNames.length;
+    }
+
+    public String getFieldName(int i) {
+      return fieldNames[i];
+    }
+
+    /** The value of the field for the last document read, or null if it has none. */
+    public Object getValue(int i) {
+      return values[i];
+    }
+  }
+
   /**
    * {@link StoredFieldVisitor} which loads the specified fields eagerly (or all if null). If {@link
    * #enableLazyFieldLoading} then the rest get special lazy field entries. Designated "large"
@@ -159,9 +159,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final int queryResultWindowSize;
   private final int queryResultMaxDocsCached;
   private final boolean useFilterForSortedQuery;
+  private final boolean earlyTerminateOnIndexSort;
 
   private final boolean cachingEnabled;
   private final SolrCache<Query, DocSet> filterCache;
+  // shared across searchers of the core; may be null
+  private final SegmentFilterCache segmentFilterCache;
   private final SolrCache<QueryResultKey, DocList> queryResultCache;
   private final SolrCache<String, UnInvertedField> fieldValueCache;
   private final SolrCache<Integer, float[]> featureVectorCache;
@@ -429,6 +432,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     this.queryResultWindowSize = solrConfig.queryResultWindowSize;
     this.queryResultMaxDocsCached = solrConfig.queryResultMaxDocsCached;
     this.useFilterForSortedQuery = solrConfig.useFilterForSortedQuery;
+    this.earlyTerminateOnIndexSort = solrConfig.earlyTerminateOnIndexSort;
 
     this.docFetcher = new SolrDocumentFetcher(this, solrConfig, enableCache);
 
@@ -443,6 +447,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       filterCache =
           solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
+      segmentFilterCache = filterCache == null ? null : core.getSegmentFilterCache();
       queryResultCache =
           solrConfig.queryResultCacheConfig == null
               ? null
@@ -472,6 +477,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cacheList = clist.toArray(new SolrCache[0]);
     } else {
       this.filterCache = null;
+      this.segmentFilterCache = null;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.featureVectorCache = null;
@@ -1075,17 +1081,31 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
       // Not found in the cache so compute and put in the cache
       if (answer == null) {
-        answer = getDocSetNC(query, null);
+        answer = getDocSetForFilterCache(query);
         filterCache.put(query, answer);
       }
     } else {
-      answer = filterCache.computeIfAbsent(query, q -> getDocSetNC(q, null));
+      answer = filterCache.computeIfAbsent(query, this::getDocSetForFilterCache);
     }
 
     assert !(answer instanceof MutableBitDocSet) : "should not be mutable";
     return answer;
   }
 
+  /**
+   * Computes a DocSet to be put in the filterCache, using the per-segment {@link
+   * SegmentFilterCache} if configured so that only segments new to this searcher are computed.
+   */
+  private DocSet getDocSetForFilterCache(Query query) throws IOException {
+    if (segmentFilterCache != null) {
+      DocSet answer = segmentFilterCache.getDocSet(this, query);
+      if (answer != null) {
+        return answer;
+      }
+    }
+    return getDocSetNC(query, null);
+  }
+
   private static final MatchAllDocsQuery MATCH_ALL_DOCS_QUERY = new MatchAllDocsQuery();
 
   /** Used as a synchronization point to handle the lazy-init of {@link #liveDocs}. */
@@ -1737,6 +1757,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       needSort = cmd.getLen() > 0 && sortIncludesOtherThanScore(sort);
       if (!needSort) {
         useFilterCache = true;
+      } else if ((flags & GET_DOCSET) == 0 && canEarlyTerminateOnIndexSort(cmd)) {
+        // collecting the top docs can stop early on sorted segments; cheaper than sorting the set
+        useFilterCache = false;
       } else {
         /*
         NOTE: if `sort:score` is specified, it will have no effect, so we really _could_ in
@@ -1893,7 +1916,15 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    */
   TopDocsCollector<? extends ScoreDoc> buildTopDocsCollector(int len, QueryCommand cmd)
       throws IOException {
-    int minNumFound = cmd.getMinExactCount();
+    return buildTopDocsCollector(len, cmd, cmd.getMinExactCount());
+  }
+
+  /**
+   * Like {@link #buildTopDocsCollector(int, QueryCommand)}, counting hits exactly up to the given
+   * number rather than the command's {@link QueryCommand#getMinExactCount()}.
+   */
+  TopDocsCollector<? extends ScoreDoc> buildTopDocsCollector(
+      int len, QueryCommand cmd, int minNumFound) throws IOException {
     Query q = cmd.getQuery();
     if (q instanceof RankQuery rq) {
       return rq.getTopDocsCollector(len, cmd, this);
@@ -1924,6 +1955,16 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     final boolean needScores = (cmd.getFlags() & GET_SCORES) != 0;
 
+    // Once a sorted segment has filled the page, the rest of it can't compete. Counting hits only
+    // up to the page size lets the TopFieldCollector skip it; numFound becomes a lower bound.
+    final int minExactCount =
+        !needScores
+                && lastDocRequested > 0
+                && cmd.getMinExactCount() == Integer.MAX_VALUE
+                && canEarlyTerminateOnIndexSort(cmd)
+            ? len
+            : cmd.getMinExactCount();
+
     final ProcessedFilter pf = getProcessedFilter(cmd.getFilterList());
     final Query query =
         QueryUtils.combineQueryAndFilter(QueryUtils.makeQueryable(cmd.getQuery()), pf.filter);
@@ -1984,7 +2025,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       final ScoreMode scoreModeUsed;
       if (!MultiThreadedSearcher.allowMT(pf.postFilter, cmd)) {
         log.trace("SINGLE THREADED search, skipping collector manager in getDocListNC");
-        final TopDocsCollector<?> topCollector = buildTopDocsCollector(len, cmd);
+        final TopDocsCollector<?> topCollector = buildTopDocsCollector(len, cmd, minExactCount);
         MaxScoreCollector maxScoreCollector = null;
         Collector collector = topCollector;
         if (needScores) {
@@ -2005,7 +2046,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
         log.trace("MULTI-THREADED search, using CollectorManager int getDocListNC");
         final MultiThreadedSearcher.SearchResult searchResult =
             new MultiThreadedSearcher(this)
-                .searchCollectorManagers(len, cmd, query, true, needScores, false, qr);
+                .searchCollectorManagers(
+                    len, cmd, minExactCount, query, true, needScores, false, qr);
         scoreModeUsed = searchResult.scoreMode;
 
         MultiThreadedSearcher.TopDocsResult topDocsResult = searchResult.getTopDocsResult();
@@ -2025,6 +2067,29 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     qr.setDocList(docList);
   }
 
+  /**
+   * Whether collection of some segments may stop early because the sort of the command is a prefix
+   * of their index sort (see {@link org.apache.solr.index.SortingMergePolicy}). Only applies if
+   * {@code earlyTerminateOnIndexSort} is configured, since numFound is then no longer exact.
+   */
+  private boolean canEarlyTerminateOnIndexSort(QueryCommand cmd) {
+    final Sort sort = cmd.getSort();
+    if (!earlyTerminateOnIndexSort
+        || sort == null
+        || cmd.getSegmentTerminateEarly()
+        || cmd.getQuery() instanceof RankQuery) {
+      return false;
+    }
+    for (LeafReaderContext leaf : getTopReaderContext().leaves()) {
+      final Sort indexSort = leaf.reader().getMetaData().sort();
+      if (indexSort != null
+          && EarlyTerminatingSortingCollector.canEarlyTerminate(sort, indexSort)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   // any DocSet returned is for the query only, without any filtering... that way it may
   // be cached if desired.
   private DocSet getDocListAndSetNC(QueryResult qr, QueryCommand cmd) throws IOException {
@@ -2126,7 +2191,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
         MultiThreadedSearcher.SearchResult searchResult =
             new MultiThreadedSearcher(this)
-                .searchCollectorManagers(len, cmd, query, true, needScores, true, qr);
+                .searchCollectorManagers(
+                    len, cmd, cmd.getMinExactCount(), query, true, needScores, true, qr);
         MultiThreadedSearcher.TopDocsResult topDocsResult = searchResult.getTopDocsResult();
         totalHits = topDocsResult.totalHits;
         topDocs = topDocsResult.topDocs;
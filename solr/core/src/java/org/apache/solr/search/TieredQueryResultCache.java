@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CaffeineCache} for the queryResultCache with a second, memory-mapped tier. Entries
+ * evicted from the heap tier for size reasons (i.e. not admitted or pushed out by W-TinyLFU) are
+ * serialized into a memory-mapped file, and heap misses are looked up there before the query is
+ * executed again. This allows a large effective cache size for paging-heavy traffic without a large
+ * heap.
+ *
+ * <p>Each cache instance belongs to a single searcher, so it has its own spill file, which is
+ * deleted when the cache is closed. The file is append-only: once {@code spillMaxMB} is reached,
+ * further evictions are discarded. Only {@link DocSlice} values are spilled.
+ *
+ * <p>Parameters in addition to those of {@link CaffeineCache}:
+ *
+ * <ul>
+ *   <li>{@code spillMaxMB}: size of the spill file; 0 (the default) disables spilling. At most
+ *       2047.
+ *   <li>{@code spillDir}: directory for spill files; defaults to {@code java.io.tmpdir}.
+ * </ul>
+ *
+ * @lucene.experimental
+ */
+public class TieredQueryResultCache extends CaffeineCache<QueryResultKey, DocList> {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final String SPILL_MAX_MB_PARAM = "spillMaxMB";
+  public static final String SPILL_DIR_PARAM = "spillDir";
+
+  // header: len, hasScores, matches, relation, maxScore
+  private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES + 1 + Float.BYTES;
+
+  private volatile long spillMaxBytes;
+  private Path spillDir;
+
+  // lazily created on first eviction
+  private MappedByteBuffer spillBuffer;
+  private Path spillFile;
+  private volatile int spillPosition;
+  private final Map<QueryResultKey, Integer> spillIndex = new ConcurrentHashMap<>();
+
+  private final LongAdder spillHits = new LongAdder();
+  private final LongAdder spillLookups = new LongAdder();
+  private final LongAdder spillInserts = new LongAdder();
+
+  @Override
+  public Object init(Map<String, String> args, Object persistence, CacheRegenerator regenerator) {
+    Object result = super.init(args, persistence, regenerator);
+    String str = args.get(SPILL_MAX_MB_PARAM);
+    int spillMaxMB = str == null ? 0 : Integer.parseInt(str);
+    if (spillMaxMB < 0 || spillMaxMB >= 2048) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          SPILL_MAX_MB_PARAM + " must be between 0 and 2047, got " + spillMaxMB);
+    }
+    spillMaxBytes = spillMaxMB * 1024L * 1024L;
+    str = args.get(SPILL_DIR_PARAM);
+    spillDir = Path.of(str == null ? System.getProperty("java.io.tmpdir") : str);
+    return result;
+  }
+
+  @Override
+  public DocList get(QueryResultKey key) {
+    DocList val = super.get(key);
+    if (val != null || spillMaxBytes == 0) {
+      return val;
+    }
+    spillLookups.increment();
+    Integer offset = spillIndex.remove(key);
+    if (offset == null) {
+      return null;
+    }
+    val = readSlice(offset);
+    if (val == null) {
+      return null; // closed
+    }
+    spillHits.increment();
+    // promote back to the heap tier; this may in turn spill something else
+    super.put(key, val);
+    return val;
+  }
+
+  @Override
+  public DocList put(QueryResultKey key, DocList val) {
+    spillIndex.remove(key);
+    return super.put(key, val);
+  }
+
+  @Override
+  public DocList remove(QueryResultKey key) {
+    spillIndex.remove(key);
+    return super.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    spillIndex.clear();
+  }
+
+  @Override
+  public void onRemoval(QueryResultKey key, DocList value, RemovalCause cause) {
+    super.onRemoval(key, value, cause);
+    if (cause == RemovalCause.SIZE
+        && spillMaxBytes > 0
+        && key != null
+        && value instanceof DocSlice slice
+        && slice.offset() == 0) {
+      spill(key, slice);
+    }
+  }
+
+  private synchronized void spill(QueryResultKey key, DocSlice slice) {
+    final int len = slice.size();
+    final boolean hasScores = slice.hasScores();
+    final long entryBytes = HEADER_BYTES + (long) len * (hasScores ? 8 : 4);
+    if (spillPosition + entryBytes > spillMaxBytes) {
+      return; // full
+    }
+    try {
+      if (spillBuffer == null) {
+        Files.createDirectories(spillDir);
+        spillFile = Files.createTempFile(spillDir, "queryResultCache-", ".spill");
+        try (FileChannel channel =
+            FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+          spillBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, spillMaxBytes);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Unable to create spill file in {}; disabling spilling", spillDir, e);
+      spillMaxBytes = 0;
+      return;
+    }
+
+    int pos = spillPosition;
+    spillBuffer.putInt(pos, len);
+    pos += Integer.BYTES;
+    spillBuffer.put(pos, (byte) (hasScores ? 1 : 0));
+    pos += 1;
+    spillBuffer.putLong(pos, slice.matches());
+    pos += Long.BYTES;
+    spillBuffer.put(pos, (byte) slice.hitCountRelation().ordinal());
+    pos += 1;
+    spillBuffer.putFloat(pos, slice.maxScore());
+    pos += Float.BYTES;
+    DocIterator iter = slice.iterator();
+    for (int i = 0; i < len; i++) {
+      spillBuffer.putInt(pos, iter.nextDoc());
+      pos += Integer.BYTES;
+      if (hasScores) {
+        spillBuffer.putFloat(pos, iter.score());
+        pos += Float.BYTES;
+      }
+    }
+    // publishing via the concurrent map makes the written bytes visible to readers
+    spillIndex.put(key, spillPosition);
+    spillPosition = pos;
+    spillInserts.increment();
+  }
+
+  private DocSlice readSlice(int offset) {
+    // absolute reads don't modify the buffer's state, so no need to synchronize
+    final MappedByteBuffer buffer = spillBuffer;
+    if (buffer == null) {
+      return null;
+    }
+    int pos = offset;
+    final int len = buffer.getInt(pos);
+    pos += Integer.BYTES;
+    final boolean hasScores = buffer.get(pos) != 0;
+    pos += 1;
+    final long matches = buffer.getLong(pos);
+    pos += Long.BYTES;
+    final TotalHits.Relation relation = TotalHits.Relation.values()[buffer.get(pos)];
+    pos += 1;
+    final float maxScore = buffer.getFloat(pos);
+    pos += Float.BYTES;
+    final int[] docs = new int[len];
+    final float[] scores = hasScores ? new float[len] : null;
+    for (int i = 0; i < len; i++) {
+      docs[i] = buffer.getInt(pos);
+      pos += Integer.BYTES;
+      if (hasScores) {
+        scores[i] = buffer.getFloat(pos);
+        pos += Float.BYTES;
+      }
+    }
+    return new DocSlice(0, len, docs, scores, matches, maxScore, relation);
+  }
+
+  /** Number of entries currently in the spill tier. */
+  public int spillSize() {
+    return spillIndex.size();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return super.ramBytesUsed()
+        + spillIndex.size()
+            * (RamUsageEstimator.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY
+                + RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    spillMaxBytes = 0;
+    spillIndex.clear();
+    spillBuffer = null; // unmapped when garbage collected
+    if (spillFile != null) {
+      Files.deleteIfExists(spillFile);
+      spillFile = null;
+    }
+    super.close();
+  }
+
+  @Override
+  public String getDescription() {
+    return super.getDescription()
+        + " with spill tier("
+        + SPILL_MAX_MB_PARAM
+        + "="
+        + (spillMaxBytes / 1024L / 1024L)
+        + ")";
+  }
+
+  @Override
+  public void initializeMetrics(
+      SolrMetricsContext parentContext, Attributes attributes, String metricName) {
+    super.initializeMetrics(parentContext, attributes, metricName);
+    final SolrMetricsContext solrMetricsContext = getSolrMetricsContext();
+    final Attributes cacheAttributes =
+        attributes.toBuilder().put(CATEGORY_ATTR, getCategory().toString()).build();
+
+    ObservableLongMeasurement spillLookupsMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + ".spill.lookups",
+            "Number of cumulative spill tier lookup results (hits and misses)");
+    ObservableLongMeasurement spillInsertsMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + ".spill.inserts", "Number of cumulative spill tier inserts");
+    ObservableLongMeasurement spillSizeMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + ".spill.size", "Current number of spill tier entries");
+    ObservableLongMeasurement spillBytesMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + ".spill.bytes_used", "Bytes used in the spill file", OtelUnit.BYTES);
+
+    solrMetricsContext.batchCallback(
+        () -> {
+          long hitCount = spillHits.sum();
+          spillLookupsMetric.record(
+              hitCount, cacheAttributes.toBuilder().put(RESULT_ATTR, "hit").build());
+          spillLookupsMetric.record(
+              spillLookups.sum() - hitCount,
+              cacheAttributes.toBuilder().put(RESULT_ATTR, "miss").build());
+          spillInsertsMetric.record(spillInserts.sum(), cacheAttributes);
+          spillSizeMetric.record(spillIndex.size(), cacheAttributes);
+          spillBytesMetric.record(spillPosition, cacheAttributes);
+        },
+        spillLookupsMetric,
+        spillInsertsMetric,
+        spillSizeMetric,
+        spillBytesMetric);
+  }
+}
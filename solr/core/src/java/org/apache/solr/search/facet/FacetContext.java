@@ -38,6 +38,9 @@ public class FacetContext {
   SolrIndexSearcher searcher;
   Query filter; // TODO: keep track of as a DocSet or as a Query?
   DocSet base;
+  // on the root context, a query matching exactly the docs of base, if known and its counts may be
+  // cached per segment
+  Query baseQuery;
   FacetContext parent;
   boolean cache = true;
   int flags;
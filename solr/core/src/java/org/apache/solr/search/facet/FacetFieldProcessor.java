@@ -814,6 +814,14 @@ abstract class FacetFieldProcessor extends FacetProcessor<FacetField> {
       }
     }
 
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      for (SlotAcc acc : subAccs) {
+        acc.collect(docs, count, slot, slotContext);
+      }
+    }
+
     @Override
     public int compare(int slotA, int slotB) {
       throw new UnsupportedOperationException();
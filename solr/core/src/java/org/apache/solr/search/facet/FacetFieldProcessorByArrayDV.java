@@ -17,8 +17,10 @@
 package org.apache.solr.search.facet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiDocValues;
@@ -26,10 +28,12 @@ import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.UnicodeUtil;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.facet.SlotAcc.CountSlotAcc;
 import org.apache.solr.search.facet.SlotAcc.SweepCountAccStruct;
@@ -42,6 +46,9 @@ import org.apache.solr.uninverting.FieldCacheImpl;
 class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
   static boolean unwrap_singleValued_multiDv = true; // only set to false for test coverage
 
+  /** Debug info key holding the number of segments that were counted in parallel. */
+  static final String CONCURRENT_SEGMENTS_DEBUG_KEY = "concurrent_segments";
+
   boolean multiValuedField;
   SortedSetDocValues si; // only used for term lookups (for both single and multi-valued)
   OrdinalMap ordinalMap = null; // maps per-segment ords to global ords
@@ -130,8 +137,24 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     if (freq.perSeg != null)
       accumSeg = canDoPerSeg && freq.perSeg; // internal - override perSeg heuristic
 
-    final int maxSize = others.size() + 1; // others + base
     final List<LeafReaderContext> leaves = fcontext.searcher.getIndexReader().leaves();
+
+    if (canDoPerSeg && others.isEmpty()) {
+      final SegmentFacetCountCache countCache =
+          fcontext.searcher.getCore().getSegmentFacetCountCache();
+      final Query baseQuery = getCacheableBaseQuery();
+      if (countCache != null && baseQuery != null) {
+        collectCountsCached(base, leaves, countCache, baseQuery);
+        return;
+      }
+    }
+
+    if (canDoPerSeg && others.isEmpty() && leaves.size() > 1 && isMultiThreaded()) {
+      collectCountsConcurrently(base, leaves);
+      return;
+    }
+
+    final int maxSize = others.size() + 1; // others + base
     final DocIdSetIterator[] subIterators = new DocIdSetIterator[maxSize];
     final CountSlotAcc[] activeCountAccs = new CountSlotAcc[maxSize];
 
@@ -205,6 +228,151 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     Arrays.fill(reuse, null); // better GC
   }
 
+  /** Whether the request asked for multi-threaded search, which faceting then follows. */
+  private boolean isMultiThreaded() {
+    return fcontext.req != null
+        && fcontext.req.getParams().getBool(CommonParams.MULTI_THREADED, false);
+  }
+
+  /**
+   * Counts each segment as a separate task on the searcher's executor. Each task counts
+   * segment-local ords into its own array, which is then mapped to global ords and merged into the
+   * base count accumulator. Only for count-only, full-range, non-sweeping collection: facets
+   * with stats or sub-facets, {@link FacetFieldProcessorByHashDV} and the StatsComponent are
+   * still collected on the request thread, since their accumulators can't be built per segment
+   * and merged afterwards.
+   */
+  private void collectCountsConcurrently(
+      SweepCountAccStruct base, List<LeafReaderContext> leaves) throws IOException {
+    final FacetDebugInfo fdebug = fcontext.getDebugInfo();
+    if (fdebug != null) {
+      fdebug.putInfoItem(CONCURRENT_SEGMENTS_DEBUG_KEY, (long) leaves.size());
+    }
+    final CountSlotAcc countAcc = base.countAcc;
+    final List<Callable<Void>> tasks = new ArrayList<>(leaves.size());
+    for (LeafReaderContext subCtx : leaves) {
+      tasks.add(
+          () -> {
+            final DocIdSetIterator disi = base.docSet.iterator(subCtx);
+            if (disi == null) {
+              return null;
+            }
+            final int[] segCounts = countSegOrds(subCtx, disi);
+            if (segCounts != null) {
+              synchronized (countAcc) {
+                addSegCounts(countAcc, subCtx, segCounts);
+              }
+            }
+            return null;
+          });
+    }
+    fcontext.searcher.getTaskExecutor().invokeAll(tasks);
+  }
+
+  /**
+   * The query matching exactly the docs of this facet's domain, if the root context has one and the
+   * domain was not changed since; null otherwise.
+   */
+  private Query getCacheableBaseQuery() {
+    FacetContext root = fcontext;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    return root.baseQuery != null && fcontext.base == root.base ? root.baseQuery : null;
+  }
+
+  /**
+   * Counts each segment through the core's {@link SegmentFacetCountCache}, so that only segments
+   * that were not counted for the same query before need to be visited. Only for count-only,
+   * full-range, non-sweeping collection over the docs of the main query.
+   */
+  private void collectCountsCached(
+      SweepCountAccStruct base,
+      List<LeafReaderContext> leaves,
+      SegmentFacetCountCache countCache,
+      Query baseQuery)
+      throws IOException {
+    for (LeafReaderContext subCtx : leaves) {
+      final int[] segCounts =
+          countCache.getCounts(
+              subCtx,
+              sf.getName(),
+              baseQuery,
+              () -> {
+                final DocIdSetIterator disi = base.docSet.iterator(subCtx);
+                return disi == null ? null : countSegOrds(subCtx, disi);
+              });
+      if (segCounts != null) {
+        addSegCounts(base.countAcc, subCtx, segCounts);
+      }
+    }
+  }
+
+  /**
+   * Counts the segment-local ords of the field over the docs of the iterator.
+   *
+   * @return the counts indexed by segment ord, or null if the segment has no values for the field
+   */
+  private int[] countSegOrds(LeafReaderContext subCtx, DocIdSetIterator disi) throws IOException {
+    final int[] segCounts;
+    if (multiValuedField) {
+      SortedSetDocValues multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
+      if (multiDv == null || multiDv.getValueCount() < 1) {
+        return null;
+      }
+      segCounts = new int[(int) multiDv.getValueCount()];
+      SortedDocValues singleDv =
+          unwrap_singleValued_multiDv ? DocValues.unwrapSingleton(multiDv) : null;
+      if (singleDv != null) {
+        countSegOrds(singleDv, disi, segCounts);
+      } else {
+        countSegOrds(multiDv, disi, segCounts);
+      }
+    } else {
+      SortedDocValues singleDv = subCtx.reader().getSortedDocValues(sf.getName());
+      if (singleDv == null || singleDv.getValueCount() < 1) {
+        return null;
+      }
+      segCounts = new int[singleDv.getValueCount()];
+      countSegOrds(singleDv, disi, segCounts);
+    }
+    return segCounts;
+  }
+
+  /** Maps segment-local ord counts to global ords and adds them to the count accumulator. */
+  private void addSegCounts(CountSlotAcc countAcc, LeafReaderContext subCtx, int[] segCounts) {
+    final LongValues toGlobal = ordinalMap == null ? null : ordinalMap.getGlobalOrds(subCtx.ord);
+    for (int segOrd = 0; segOrd < segCounts.length; segOrd++) {
+      final int count = segCounts[segOrd];
+      if (count != 0) {
+        final int ord = toGlobal == null ? segOrd : (int) toGlobal.get(segOrd);
+        countAcc.incrementCount(ord, count);
+      }
+    }
+  }
+
+  private static void countSegOrds(SortedDocValues dv, DocIdSetIterator disi, int[] segCounts)
+      throws IOException {
+    int doc;
+    while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+      if (dv.advanceExact(doc)) {
+        segCounts[dv.ordValue()]++;
+      }
+    }
+  }
+
+  private static void countSegOrds(SortedSetDocValues dv, DocIdSetIterator disi, int[] segCounts)
+      throws IOException {
+    int doc;
+    while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+      if (dv.advanceExact(doc)) {
+        for (int o = 0; o < dv.docValueCount(); o++) {
+          segCounts[(int) dv.nextOrd()]++;
+        }
+      }
+    }
+  }
+
   @Override
   protected BytesRef lookupOrd(int ord) throws IOException {
     return si.lookupOrd(ord);
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import org.apache.lucene.search.Query;
 import org.apache.solr.client.solrj.SolrResponse;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.CommonParams;
@@ -38,6 +39,7 @@ import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.handler.component.SearchComponent;
 import org.apache.solr.handler.component.ShardRequest;
 import org.apache.solr.handler.component.ShardResponse;
+import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.search.QueryContext;
 import org.noggit.CharArr;
 import org.noggit.JSONWriter;
@@ -147,6 +149,7 @@ public class FacetModule extends SearchComponent {
                 .SKIP_FACET; // the root bucket should have been received from all shards previously
       }
     }
+    fcontext.baseQuery = getCacheableBaseQuery(rb, fcontext);
     if (rb.isDebug()) {
       FacetDebugInfo fdebug = new FacetDebugInfo();
       fcontext.setDebugInfo(fdebug);
@@ -158,6 +161,24 @@ public class FacetModule extends SearchComponent {
     rb.rsp.add("facets", results);
   }
 
+  /**
+   * The main query, if the {@link SegmentFacetCountCache} is enabled and may cache counts over its
+   * matches: there are no filters and the results are complete.
+   */
+  private static Query getCacheableBaseQuery(ResponseBuilder rb, FacetContext fcontext)
+      throws IOException {
+    SegmentFacetCountCache countCache = rb.req.getCore().getSegmentFacetCountCache();
+    if (countCache == null
+        || !fcontext.cache
+        || rb.getQuery() == null
+        || (rb.getFilters() != null && !rb.getFilters().isEmpty())
+        || SolrQueryResponse.isPartialResults(rb.rsp.getResponseHeader())
+        || !countCache.isCacheable(fcontext.searcher, rb.getQuery())) {
+      return null;
+    }
+    return rb.getQuery();
+  }
+
   private void clearFaceting(List<ShardRequest> outgoing) {
     // turn off faceting for requests not marked as being for faceting refinements
     for (ShardRequest sreq : outgoing) {
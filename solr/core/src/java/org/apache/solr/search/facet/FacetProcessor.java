@@ -357,6 +357,9 @@ public abstract class FacetProcessor<T extends FacetRequest> {
 
     final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
     final Iterator<LeafReaderContext> ctxIt = leaves.iterator();
+    // hand the docs to the accs a block at a time, so they can read and aggregate values in bulk
+    final int[] block = new int[Math.min(SlotAcc.BLOCK_SIZE, docs.size())];
+    int blockSize = 0;
     LeafReaderContext ctx = null;
     int segBase = 0;
     int segMax;
@@ -364,6 +367,10 @@ public abstract class FacetProcessor<T extends FacetRequest> {
     for (DocIterator docsIt = docs.iterator(); docsIt.hasNext(); ) {
       final int doc = docsIt.nextDoc();
       if (doc >= adjustedMax) {
+        if (blockSize > 0) {
+          collect(block, blockSize, slot, slotContext);
+          blockSize = 0;
+        }
         do {
           ctx = ctxIt.next();
           if (ctx == null) {
@@ -378,11 +385,27 @@ public abstract class FacetProcessor<T extends FacetRequest> {
         setNextReader(ctx);
       }
       count++;
-      collect(doc - segBase, slot, slotContext); // per-seg collectors
+      block[blockSize++] = doc - segBase; // per-seg collectors
+      if (blockSize == block.length) {
+        collect(block, blockSize, slot, slotContext);
+        blockSize = 0;
+      }
+    }
+    if (blockSize > 0) {
+      collect(block, blockSize, slot, slotContext);
     }
     return count;
   }
 
+  void collect(int[] segDocs, int count, int slot, IntFunction<SlotContext> slotContext)
+      throws IOException {
+    if (accs != null) {
+      for (SlotAcc acc : accs) {
+        acc.collect(segDocs, count, slot, slotContext);
+      }
+    }
+  }
+
   void collect(int segDoc, int slot, IntFunction<SlotContext> slotContext) throws IOException {
     if (accs != null) {
       for (SlotAcc acc : accs) {
@@ -263,6 +263,21 @@ public class MinMaxAgg extends SimpleAggValueSource {
       }
     }
 
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      final int n = readDoubles(docs, count, true);
+      final double[] vals = doubleBuffer;
+      double currVal = result[slot];
+      for (int i = 0; i < n; i++) {
+        double val = vals[i];
+        if (Double.compare(val, currVal) * minmax < 0 || Double.isNaN(currVal)) {
+          currVal = val;
+        }
+      }
+      result[slot] = currVal;
+    }
+
     @Override
     public Object getValue(int slot) {
       double val = result[slot];
@@ -298,6 +313,35 @@ public class MinMaxAgg extends SimpleAggValueSource {
       }
     }
 
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      final int n = readLongs(docs, count);
+      if (n == 0) {
+        return;
+      }
+      final long[] vals = longBuffer;
+      // branch-free reductions that the JIT can unroll and vectorize
+      long val = vals[0];
+      if (minmax == 1) {
+        for (int i = 1; i < n; i++) {
+          val = Math.min(val, vals[i]);
+        }
+      } else {
+        for (int i = 1; i < n; i++) {
+          val = Math.max(val, vals[i]);
+        }
+      }
+
+      long currVal = result[slot];
+      if (currVal == 0 && !exists.get(slot)) {
+        exists.set(slot);
+        result[slot] = val;
+      } else if (Long.compare(val, currVal) * minmax < 0) {
+        result[slot] = val;
+      }
+    }
+
     @Override
     public Object getValue(int slot) {
       long val = result[slot];
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.io.IOException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.search.SegmentCache;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * A cache of the per-segment term counts of JSON terms facets on docValues, keyed on segment plus
+ * field plus the query that selected the documents, and shared by all searchers of a core. After a
+ * new searcher is opened only the new segments (and those with new deletions) are counted again;
+ * the counts of the other segments are mapped to the global ords of the new searcher.
+ *
+ * <p>Only facets over the documents of a main query, without filters or domain changes, are
+ * counted through this cache, and only when {@link SegmentCache} deems the query cacheable per
+ * segment. Entries for a segment are dropped when its reader is closed. Configured in
+ * solrconfig.xml with {@code <segmentFacetCountCache maxRamMB="..."/>} in the {@code <query>}
+ * section.
+ *
+ * @lucene.experimental
+ */
+public class SegmentFacetCountCache extends SegmentCache<int[]> {
+
+  public static final String MAX_RAM_MB_PARAM = "maxRamMB";
+  public static final int DEFAULT_MAX_RAM_MB = 64;
+
+  private static final int[] NO_COUNTS = new int[0];
+
+  /** Computes the counts of the segment ords of a field, or null if the segment has no values. */
+  @FunctionalInterface
+  interface SegmentCounter {
+    int[] count() throws IOException;
+  }
+
+  public SegmentFacetCountCache(long maxRamBytes) {
+    super(maxRamBytes, "solr.segment_facet_count_cache");
+  }
+
+  /** The segment reader, whose key changes with deletions. */
+  @Override
+  protected IndexReader.CacheHelper getCacheHelper(LeafReader reader) {
+    return reader.getReaderCacheHelper();
+  }
+
+  @Override
+  protected long sizeOf(int[] counts) {
+    return RamUsageEstimator.sizeOf(counts);
+  }
+
+  /**
+   * Whether the matches of the query on each segment only depend on that segment, so that counts
+   * over them can be cached per segment.
+   */
+  public boolean isCacheable(SolrIndexSearcher searcher, Query query) throws IOException {
+    return createCacheableWeight(searcher, query) != null;
+  }
+
+  /**
+   * Returns the cached counts of the segment ords of the field over the matches of the query on the
+   * segment, computing them with the counter if needed.
+   *
+   * @return the counts, indexed by segment ord, or null if the segment has no values
+   * @see #isCacheable
+   */
+  int[] getCounts(LeafReaderContext ctx, String field, Query query, SegmentCounter counter)
+      throws IOException {
+    final int[] counts =
+        get(
+            new Key(getSegmentKey(ctx), field, query),
+            () -> {
+              int[] computed = counter.count();
+              return computed == null ? NO_COUNTS : computed;
+            });
+    return counts == NO_COUNTS ? null : counts;
+  }
+}
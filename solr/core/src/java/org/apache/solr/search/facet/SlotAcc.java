@@ -42,6 +42,12 @@ import org.apache.solr.search.SolrIndexSearcher;
  * nominal slot.
  */
 public abstract class SlotAcc implements Closeable {
+  /**
+   * The max number of docs passed at once to {@link #collect(int[], int, int, IntFunction)} by
+   * {@link #collect(DocSet, int, IntFunction)}
+   */
+  public static final int BLOCK_SIZE = 512;
+
   String key; // todo...
   protected final FacetContext fcontext;
   protected LeafReaderContext currentReaderContext;
@@ -87,9 +93,28 @@ public abstract class SlotAcc implements Closeable {
   public abstract void collect(int doc, int slot, IntFunction<SlotContext> slotContext)
       throws IOException;
 
+  /**
+   * Collects a block of documents of the current segment in the same slot. The default
+   * implementation calls {@link #collect(int, int, IntFunction)} for each of them. Accumulators of
+   * numeric values override it to read the values of the whole block first, then aggregate them in
+   * a tight loop over a primitive array.
+   *
+   * @param docs Single Segment docIds in increasing order; only the first {@code count} are valid
+   * @param count The number of documents to collect
+   * @param slot The slot number to collect these documents in
+   * @param slotContext A callback that can be used for Accumulators that would like additional info
+   *     about the current slot, see {@link #collect(int, int, IntFunction)}
+   */
+  public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+      throws IOException {
+    for (int i = 0; i < count; i++) {
+      collect(docs[i], slot, slotContext);
+    }
+  }
+
   /**
    * Bulk collection of all documents in a slot. The default implementation calls {@link
-   * #collect(int, int, IntFunction)}
+   * #collect(int[], int, int, IntFunction)} with blocks of up to {@link #BLOCK_SIZE} documents
    *
    * @param docs (global) Documents to collect
    * @param slot The slot number to collect these documents in
@@ -105,6 +130,8 @@ public abstract class SlotAcc implements Closeable {
 
     final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
     final Iterator<LeafReaderContext> ctxIt = leaves.iterator();
+    final int[] block = new int[Math.min(BLOCK_SIZE, docs.size())];
+    int blockSize = 0;
     LeafReaderContext ctx = null;
     int segBase = 0;
     int segMax;
@@ -112,6 +139,10 @@ public abstract class SlotAcc implements Closeable {
     for (DocIterator docsIt = docs.iterator(); docsIt.hasNext(); ) {
       final int doc = docsIt.nextDoc();
       if (doc >= adjustedMax) {
+        if (blockSize > 0) {
+          collect(block, blockSize, slot, slotContext);
+          blockSize = 0;
+        }
         do {
           ctx = ctxIt.next();
           if (ctx == null) {
@@ -126,7 +157,14 @@ public abstract class SlotAcc implements Closeable {
         setNextReader(ctx);
       }
       count++;
-      collect(doc - segBase, slot, slotContext); // per-seg collectors
+      block[blockSize++] = doc - segBase; // per-seg collectors
+      if (blockSize == block.length) {
+        collect(block, blockSize, slot, slotContext);
+        blockSize = 0;
+      }
+    }
+    if (blockSize > 0) {
+      collect(block, blockSize, slot, slotContext);
     }
     return count;
   }
@@ -275,6 +313,9 @@ public abstract class SlotAcc implements Closeable {
   public abstract static class FuncSlotAcc extends SlotAcc {
     protected final ValueSource valueSource;
     protected FunctionValues values;
+    // the values of a block of docs, see readDoubles and readLongs
+    protected double[] doubleBuffer;
+    protected long[] longBuffer;
 
     public FuncSlotAcc(ValueSource values, FacetContext fcontext, int numSlots) {
       super(fcontext);
@@ -287,6 +328,52 @@ public abstract class SlotAcc implements Closeable {
       super.setNextReader(readerContext);
       values = valueSource.getValues(fcontext.qcontext, readerContext);
     }
+
+    /**
+     * Reads the double value of each of the given docs into {@link #doubleBuffer}, leaving out the
+     * docs without a value if {@code existingOnly}, and returns the number of values read.
+     */
+    protected int readDoubles(int[] docs, int count, boolean existingOnly) throws IOException {
+      if (doubleBuffer == null || doubleBuffer.length < count) {
+        doubleBuffer = new double[Math.max(count, BLOCK_SIZE)];
+      }
+      final double[] vals = doubleBuffer;
+      final FunctionValues values = this.values;
+      int n = 0;
+      for (int i = 0; i < count; i++) {
+        final int doc = docs[i];
+        final double val = values.doubleVal(doc);
+        // depend on fact that non existing values return 0 for func query
+        if (existingOnly && val == 0 && !values.exists(doc)) {
+          continue;
+        }
+        vals[n++] = val;
+      }
+      return n;
+    }
+
+    /**
+     * Reads the long value of each of the given docs into {@link #longBuffer}, leaving out the docs
+     * without a value, and returns the number of values read.
+     */
+    protected int readLongs(int[] docs, int count) throws IOException {
+      if (longBuffer == null || longBuffer.length < count) {
+        longBuffer = new long[Math.max(count, BLOCK_SIZE)];
+      }
+      final long[] vals = longBuffer;
+      final FunctionValues values = this.values;
+      int n = 0;
+      for (int i = 0; i < count; i++) {
+        final int doc = docs[i];
+        final long val = values.longVal(doc);
+        // depend on fact that non existing values return 0 for func query
+        if (val == 0 && !values.exists(doc)) {
+          continue;
+        }
+        vals[n++] = val;
+      }
+      return n;
+    }
   }
 
   // have a version that counts the number of times a Slot has been hit? (for avg... what else?)
@@ -415,6 +502,19 @@ public abstract class SlotAcc implements Closeable {
       double val = values.doubleVal(doc);
       result[slotNum] += val;
     }
+
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      final int n = readDoubles(docs, count, false);
+      final double[] vals = doubleBuffer;
+      // same order of additions as collecting one doc at a time, so the sum doesn't change
+      double sum = result[slot];
+      for (int i = 0; i < n; i++) {
+        sum += vals[i];
+      }
+      result[slot] = sum;
+    }
   }
 
   static class SumsqSlotAcc extends DoubleFuncSlotAcc {
@@ -429,6 +529,18 @@ public abstract class SlotAcc implements Closeable {
       val = val * val;
       result[slotNum] += val;
     }
+
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      final int n = readDoubles(docs, count, false);
+      final double[] vals = doubleBuffer;
+      double sum = result[slot];
+      for (int i = 0; i < n; i++) {
+        sum += vals[i] * vals[i];
+      }
+      result[slot] = sum;
+    }
   }
 
   static class AvgSlotAcc extends DoubleFuncSlotAcc {
@@ -457,6 +569,19 @@ public abstract class SlotAcc implements Closeable {
       }
     }
 
+    @Override
+    public void collect(int[] docs, int count, int slot, IntFunction<SlotContext> slotContext)
+        throws IOException {
+      final int n = readDoubles(docs, count, true);
+      final double[] vals = doubleBuffer;
+      double sum = result[slot];
+      for (int i = 0; i < n; i++) {
+        sum += vals[i];
+      }
+      result[slot] = sum;
+      counts[slot] += n;
+    }
+
     private double avg(int slot) {
       return AggUtil.avg(result[slot], counts[slot]); // calc once and cache in result?
     }
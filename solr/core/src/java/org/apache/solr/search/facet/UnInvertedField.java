@@ -19,21 +19,32 @@ package org.apache.solr.search.facet;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.index.SlowCompositeReaderWrapper;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.TrieField;
@@ -77,6 +88,12 @@ import org.slf4j.LoggerFactory;
  * faceting has completed. Only every 128th term value is stored, along with its corresponding term
  * number, and this is used as an index to find the closest term and iterate until the desired
  * number is hit (very much like Lucene's own internal term index).
+ *
+ * <p>When the {@value #OFF_HEAP_PROP} system property is true, the int[maxDoc()] and the byte
+ * arrays of a cached instance are moved out of the Java heap once built: they are written to a file
+ * in the {@code uif} directory of the core's data directory and memory-mapped. The file is deleted
+ * right after it is mapped, and is unmapped when the searcher's index reader is closed, which frees
+ * its disk space; meanwhile the OS page cache holds the data.
  */
 public class UnInvertedField extends DocTermOrds {
   private static int TNUM_OFFSET = 2;
@@ -111,6 +128,12 @@ public class UnInvertedField extends DocTermOrds {
   private SolrIndexSearcher.DocsEnumState deState;
   private final SolrIndexSearcher searcher;
 
+  public static final String OFF_HEAP_PROP = "solr.facet.uif.offheap.enabled";
+
+  /* The index and tnums of DocTermOrds once moved off-heap, or null. */
+  private RandomAccessInput mappedDocCodes;
+  private RandomAccessInput[] mappedTermNums;
+
   private static final UnInvertedField uifPlaceholder = new UnInvertedField();
 
   private UnInvertedField() { // Dummy for synchronization.
@@ -225,10 +248,109 @@ public class UnInvertedField extends DocTermOrds {
       maxTermCounts = newMaxTermCounts;
     }
 
+    if (termInstances > 0
+        // an uncached instance is built per request, and its mapping would outlive the request
+        && searcher.getFieldValueCache() != null
+        && EnvUtils.getPropertyAsBool(OFF_HEAP_PROP, false)) {
+      moveOffHeap();
+    }
+
     log.info("UnInverted multi-valued field {}", this);
     // System.out.println("CREATED: " + toString() + " ti.index=" + ti.index);
   }
 
+  /**
+   * Writes {@link #index} and {@link #tnums} to a file, maps it, and releases the arrays. The
+   * mapping is closed, which unmaps it, when the searcher's index reader is closed: no request can
+   * use this instance anymore by then.
+   */
+  private void moveOffHeap() throws IOException {
+    final IndexReader.CacheHelper cacheHelper = searcher.getRawReader().getReaderCacheHelper();
+    if (cacheHelper == null) {
+      return; // can't tell when to unmap
+    }
+    final Path dir = Path.of(searcher.getCore().getDataDir(), "uif");
+    Files.createDirectories(dir);
+    final IndexInput mapped;
+    try (MMapDirectory mmapDir = new MMapDirectory(dir)) {
+      // the mapping must not outlive this instance, so don't share it with other files
+      mmapDir.setGroupingFunction(MMapDirectory.NO_GROUPING);
+      final String name;
+      try (IndexOutput out = mmapDir.createTempOutput("uif", "offheap", IOContext.DEFAULT)) {
+        name = out.getName();
+        for (int code : index) {
+          out.writeInt(code);
+        }
+        for (byte[] arr : tnums) {
+          if (arr != null) {
+            out.writeBytes(arr, arr.length);
+          }
+        }
+      }
+      try {
+        mapped = mmapDir.openInput(name, IOContext.DEFAULT);
+      } finally {
+        // the mapping stays valid; the disk space is freed once it is unmapped
+        IOUtils.deleteFilesIgnoringExceptions(mmapDir, name);
+      }
+    }
+    try {
+      long offset = 0;
+      final long size = (long) index.length * Integer.BYTES;
+      final RandomAccessInput docCodes = mapped.randomAccessSlice(offset, size);
+      offset += size;
+      final RandomAccessInput[] termNums = new RandomAccessInput[tnums.length];
+      for (int i = 0; i < tnums.length; i++) {
+        if (tnums[i] != null) {
+          termNums[i] = mapped.randomAccessSlice(offset, tnums[i].length);
+          offset += tnums[i].length;
+        }
+      }
+      cacheHelper.addClosedListener(key -> IOUtils.closeWhileHandlingException(mapped));
+      mappedDocCodes = docCodes;
+      mappedTermNums = termNums;
+    } catch (IOException | RuntimeException e) {
+      IOUtils.closeWhileHandlingException(mapped);
+      throw e;
+    }
+    index = null;
+    tnums = null;
+  }
+
+  /** Whether the term lists were moved off the Java heap; see {@link #OFF_HEAP_PROP}. */
+  public boolean isOffHeap() {
+    return mappedDocCodes != null;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return super.isEmpty() && mappedDocCodes == null;
+  }
+
+  @Override
+  protected int getDocCode(int doc) {
+    if (mappedDocCodes == null) {
+      return index[doc];
+    }
+    try {
+      return mappedDocCodes.readInt((long) doc * Integer.BYTES);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected byte getTermNumByte(int whichArray, int pos) {
+    if (mappedTermNums == null) {
+      return tnums[whichArray][pos];
+    }
+    try {
+      return mappedTermNums[whichArray].readByte(pos);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   public int getNumTerms() {
     return numTermsInField;
   }
@@ -272,17 +394,16 @@ public class UnInvertedField extends DocTermOrds {
 
     public void getSmallTerms(int doc, Callback target) {
       if (termInstances > 0) {
-        int code = index[doc];
+        int code = getDocCode(doc);
 
         if ((code & 0x80000000) != 0) {
           int pos = code & 0x7fffffff;
           int whichArray = (doc >>> 16) & 0xff;
-          byte[] arr = tnums[whichArray];
           int tnum = 0;
           for (; ; ) {
             int delta = 0;
             for (; ; ) {
-              byte b = arr[pos++];
+              byte b = getTermNumByte(whichArray, pos++);
               delta = (delta << 7) | (b & 0x7f);
               if ((b & 0x80) == 0) break;
             }
@@ -332,8 +453,6 @@ public class UnInvertedField extends DocTermOrds {
     SweepCountAccStruct baseCountAccStruct = SweepingCountSlotAcc.baseStructOf(processor);
     final List<SweepCountAccStruct> others = SweepingCountSlotAcc.otherStructsOf(processor);
 
-    final int[] index = this.index;
-
     boolean doNegative =
         baseSize > maxDoc >> 1
             && termInstances > 0
@@ -378,17 +497,16 @@ public class UnInvertedField extends DocTermOrds {
       while (iter.hasNext()) {
         int doc = iter.nextDoc();
         int maxIdx = iter.registerCounts(counts);
-        int code = index[doc];
+        int code = getDocCode(doc);
 
         if ((code & 0x80000000) != 0) {
           int pos = code & 0x7fffffff;
           int whichArray = (doc >>> 16) & 0xff;
-          byte[] arr = tnums[whichArray];
           int tnum = 0;
           for (; ; ) {
             int delta = 0;
             for (; ; ) {
-              byte b = arr[pos++];
+              byte b = getTermNumByte(whichArray, pos++);
               delta = (delta << 7) | (b & 0x7f);
               if ((b & 0x80) == 0) break;
             }
@@ -518,17 +636,16 @@ public class UnInvertedField extends DocTermOrds {
         }
         int segDoc = doc - segBase;
 
-        int code = index[doc];
+        int code = getDocCode(doc);
 
         if ((code & 0x80000000) != 0) {
           int pos = code & 0x7fffffff;
           int whichArray = (doc >>> 16) & 0xff;
-          byte[] arr = tnums[whichArray];
           int tnum = 0;
           for (; ; ) {
             int delta = 0;
             for (; ; ) {
-              byte b = arr[pos++];
+              byte b = getTermNumByte(whichArray, pos++);
               delta = (delta << 7) | (b & 0x7f);
               if ((b & 0x80) == 0) break;
             }
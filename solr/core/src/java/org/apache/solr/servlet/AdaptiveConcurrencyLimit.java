@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.servlet;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A limit on the number of concurrent requests that adapts to their latency, between a minimum and
+ * a maximum number of requests.
+ *
+ * <p>The latency of each completed request is compared to a long term average of the latencies.
+ * While requests complete about as fast as on average, the limit grows by about the square root of
+ * itself; when they get slower than the average by more than a tolerance, the limit shrinks in
+ * proportion. The limit only grows when it was mostly used, so that a lightly loaded node does not
+ * drift to the maximum.
+ *
+ * <p>Requests of the limiter's own type wait, in turn, for a request to complete when the limit is
+ * reached. Requests borrowing a slot from another type never wait and are only let in while no
+ * request of the limiter's own type is waiting.
+ */
+@ThreadSafe
+class AdaptiveConcurrencyLimit {
+
+  // number of samples the long term average latency is smoothed over
+  private static final double LONG_WINDOW = 100;
+
+  // how much slower than the long term average requests may get before the limit shrinks
+  private static final double TOLERANCE = 1.5;
+
+  // weight of each new limit estimate in the limit
+  private static final double SMOOTHING = 0.2;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+
+  private double limit;
+  private double longLatencyNanos = -1;
+  private int inFlight;
+  private int waiting;
+
+  AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+    if (minLimit < 1 || minLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "Invalid adaptive limit range [" + minLimit + ", " + maxLimit + "]");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = maxLimit;
+  }
+
+  /**
+   * Acquires a slot for a request of the limiter's own type, waiting up to the given time for one
+   * to be released if the limit is reached. A negative timeout means no wait.
+   *
+   * @return whether a slot was acquired
+   */
+  boolean acquire(long timeoutMs) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      long remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs));
+      waiting++;
+      try {
+        while (inFlight >= getLimit()) {
+          if (remainingNanos <= 0) {
+            return false;
+          }
+          remainingNanos = released.awaitNanos(remainingNanos);
+        }
+      } finally {
+        waiting--;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Acquires a slot for a request borrowing from another type, only if one is available right away
+   * and no request of the limiter's own type is waiting.
+   *
+   * @return whether a slot was acquired
+   */
+  boolean tryBorrow() {
+    lock.lock();
+    try {
+      if (waiting == 0 && inFlight < getLimit()) {
+        inFlight++;
+        return true;
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Releases the slot of a request that completed after the given time. */
+  void release(long latencyNanos) {
+    lock.lock();
+    try {
+      final int before = getLimit();
+      update(Math.max(1, latencyNanos), inFlight);
+      inFlight--;
+      if (getLimit() > before) {
+        released.signalAll();
+      } else {
+        released.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Releases a slot that was not used for a request, without taking it as a latency sample. */
+  void cancel() {
+    lock.lock();
+    try {
+      inFlight--;
+      released.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void update(long latencyNanos, int inFlightAtCompletion) {
+    if (longLatencyNanos < 0) {
+      longLatencyNanos = latencyNanos;
+    } else {
+      longLatencyNanos += (latencyNanos - longLatencyNanos) / LONG_WINDOW;
+    }
+    final double gradient =
+        Math.max(0.5, Math.min(1.0, TOLERANCE * longLatencyNanos / latencyNanos));
+    final double estimate = limit * gradient + Math.sqrt(limit);
+    if (estimate > limit && inFlightAtCompletion < limit / 2) {
+      // the limit was not the bottleneck, so the latency says nothing about a higher one
+      return;
+    }
+    limit = Math.max(minLimit, Math.min(maxLimit, (1 - SMOOTHING) * limit + SMOOTHING * estimate));
+  }
+
+  /** The current limit on the number of concurrent requests. */
+  int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
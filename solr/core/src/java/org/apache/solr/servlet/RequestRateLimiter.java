@@ -19,6 +19,7 @@ package org.apache.solr.servlet;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,6 +31,9 @@ import org.apache.solr.core.RateLimiterConfig;
  *
  * <p>The control flow is as follows: Handle request -- Check if slot is available -- If available,
  * acquire slot and proceed -- else reject the same.
+ *
+ * <p>If the adaptive limit is enabled, the number of concurrent requests is further limited by an
+ * {@link AdaptiveConcurrencyLimit}, between the configured minimum and maximum number of requests.
  */
 @ThreadSafe
 public class RequestRateLimiter {
@@ -45,6 +49,9 @@ public class RequestRateLimiter {
 
   private final AtomicInteger nativeReservations;
 
+  // Latency based limit on the number of concurrent requests, if enabled
+  private final AdaptiveConcurrencyLimit adaptiveLimit;
+
   private final RateLimiterConfig rateLimiterConfig;
   public static final SlotReservation UNLIMITED =
       () -> {
@@ -68,10 +75,18 @@ public class RequestRateLimiter {
       borrowableSlotsPool = new Semaphore(rateLimiterConfig.allowedRequests - guaranteedSlots);
       nativeReservations = new AtomicInteger();
     }
+    adaptiveLimit =
+        rateLimiterConfig.isAdaptiveLimitEnabled
+            ? new AdaptiveConcurrencyLimit(
+                rateLimiterConfig.minAllowedRequests, rateLimiterConfig.allowedRequests)
+            : null;
   }
 
   @VisibleForTesting
   boolean isEmpty() {
+    if (adaptiveLimit != null && adaptiveLimit.getInFlight() != 0) {
+      return false;
+    }
     if (totalSlotsPool.availablePermits() != rateLimiterConfig.allowedRequests) {
       return false;
     }
@@ -96,8 +111,31 @@ public class RequestRateLimiter {
       return UNLIMITED;
     }
 
-    if (totalSlotsPool.tryAcquire(
-        rateLimiterConfig.waitForSlotAcquisition, TimeUnit.MILLISECONDS)) {
+    if (adaptiveLimit != null) {
+      final long startNanos = System.nanoTime();
+      if (!adaptiveLimit.acquire(rateLimiterConfig.waitForSlotAcquisition)) {
+        return null;
+      }
+      // the adaptive limit never exceeds the slots, so this should not have to wait, but if it
+      // does, the request waits no longer in all than the configured slot acquisition time
+      final long remainingMillis =
+          rateLimiterConfig.waitForSlotAcquisition
+              - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      SlotReservation reservation = null;
+      try {
+        reservation = acquireSlot(Math.max(0, remainingMillis));
+      } finally {
+        if (reservation == null) {
+          adaptiveLimit.cancel();
+        }
+      }
+      return reservation == null ? null : new AdaptiveReservation(adaptiveLimit, reservation);
+    }
+    return acquireSlot(rateLimiterConfig.waitForSlotAcquisition);
+  }
+
+  private SlotReservation acquireSlot(long waitForSlotAcquisition) throws InterruptedException {
+    if (totalSlotsPool.tryAcquire(waitForSlotAcquisition, TimeUnit.MILLISECONDS)) {
       if (nativeReservations == null) {
         assert borrowableSlotsPool == null || totalSlotsPool == borrowableSlotsPool;
         // simple case: all slots guaranteed; or none, do not double-acquire
@@ -139,6 +177,21 @@ public class RequestRateLimiter {
     if (borrowableSlotsPool == null) {
       return null;
     }
+    if (adaptiveLimit != null) {
+      if (!adaptiveLimit.tryBorrow()) {
+        return null;
+      }
+      SlotReservation reservation = borrowSlot();
+      if (reservation == null) {
+        adaptiveLimit.cancel();
+        return null;
+      }
+      return new AdaptiveReservation(adaptiveLimit, reservation);
+    }
+    return borrowSlot();
+  }
+
+  private SlotReservation borrowSlot() {
     // by the time we get to slot borrowing, we have already waited for the borrowing request-type's
     // max slot acquisition millis, so don't wait again. Borrow only if it's available immediately.
     if (totalSlotsPool.tryAcquire()) {
@@ -221,4 +274,27 @@ public class RequestRateLimiter {
       totalPool.release();
     }
   }
+
+  /** Releases a slot of the adaptive limit along with the underlying reservation. */
+  static class AdaptiveReservation implements SlotReservation {
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+    private final SlotReservation reservation;
+    private final long startNanos = System.nanoTime();
+
+    public AdaptiveReservation(
+        AdaptiveConcurrencyLimit adaptiveLimit, SlotReservation reservation) {
+      assert reservation != null;
+      this.adaptiveLimit = adaptiveLimit;
+      this.reservation = reservation;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        reservation.close();
+      } finally {
+        adaptiveLimit.release(System.nanoTime() - startNanos);
+      }
+    }
+  }
 }
@@ -269,6 +269,20 @@ public class DocTermOrds implements Accountable {
     return index == null;
   }
 
+  /**
+   * Returns the entry of the document in {@link #index}: either its term numbers, inlined, or a
+   * pointer into one of the {@link #tnums} arrays. Subclasses that keep {@link #index} elsewhere
+   * override this along with {@link #getTermNumByte(int, int)} and {@link #isEmpty()}.
+   */
+  protected int getDocCode(int doc) {
+    return index[doc];
+  }
+
+  /** Returns the byte at the given position of the {@link #tnums} array {@code whichArray}. */
+  protected byte getTermNumByte(int whichArray, int pos) {
+    return tnums[whichArray][pos];
+  }
+
   /** Subclass can override this */
   protected void visitTerm(TermsEnum te, int termNum) throws IOException {}
 
@@ -789,7 +803,8 @@ public class DocTermOrds implements Accountable {
     private int doc = -1;
     private int tnum;
     private int upto;
-    private byte[] arr;
+    // the tnums array upto points into, or -1 if the term numbers are inlined into upto
+    private int whichArray = -1;
 
     Iterator(LeafReader reader) throws IOException {
       this.reader = reader;
@@ -812,18 +827,18 @@ public class DocTermOrds implements Accountable {
 
     @Override
     public int docValueCount() {
-      if (arr == null) {
+      if (whichArray < 0) {
         // This value was inlined, and then read into a single buffer
         return bufferLength;
       } else {
         // scan logic taken from read() - count the number of term ordinals
-        int start = index[doc] & 0x7fffffff;
+        int start = getDocCode(doc) & 0x7fffffff;
         int cursor = start;
         int count = 0;
         for (; ; ) {
           int delta = 0;
           for (; ; ) {
-            byte b = arr[cursor++];
+            byte b = getTermNumByte(whichArray, cursor++);
             delta = (delta << 7) | (b & 0x7f);
             if ((b & 0x80) == 0) break;
           }
@@ -841,7 +856,7 @@ public class DocTermOrds implements Accountable {
      */
     int read(int[] buffer) {
       int bufferUpto = 0;
-      if (arr == null) {
+      if (whichArray < 0) {
         // code is inlined into upto
         // System.out.println("inlined");
         int code = upto;
@@ -862,7 +877,7 @@ public class DocTermOrds implements Accountable {
         for (; ; ) {
           int delta = 0;
           for (; ; ) {
-            byte b = arr[upto++];
+            byte b = getTermNumByte(whichArray, upto++);
             delta = (delta << 7) | (b & 0x7f);
             // System.out.println("    cycle: upto=" + upto + " delta=" + delta + " b=" + b);
             if ((b & 0x80) == 0) break;
@@ -884,16 +899,15 @@ public class DocTermOrds implements Accountable {
     private void setDocument(int docID) {
       this.doc = docID;
       tnum = 0;
-      final int code = index[docID];
+      final int code = getDocCode(docID);
       if ((code & 0x80000000) != 0) {
         // a pointer
         upto = code & 0x7fffffff;
         // System.out.println("    pointer!  upto=" + upto);
-        int whichArray = (docID >>> 16) & 0xff;
-        arr = tnums[whichArray];
+        whichArray = (docID >>> 16) & 0xff;
       } else {
         // System.out.println("    inline!");
-        arr = null;
+        whichArray = -1;
         upto = code;
       }
       bufferUpto = 0;
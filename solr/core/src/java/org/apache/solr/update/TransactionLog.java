@@ -36,7 +36,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -86,6 +91,14 @@ public class TransactionLog implements Closeable {
   protected volatile boolean deleteOnClose = true;
 
   protected AtomicInteger refcount = new AtomicInteger(1);
+
+  // read-only mapping of the whole log once no more records will be written; see mapReadOnly().
+  // Closing it unmaps the log.
+  protected volatile IndexInput mappedLog;
+
+  // Group commit: the log has been fsync'ed up to this position. Guarded by syncLock.
+  private long syncedPosition;
+  private final Object syncLock = new Object();
   protected Map<String, Integer> globalStringMap = new HashMap<>();
   protected List<String> globalStringList = new ArrayList<>();
 
@@ -396,6 +409,23 @@ public class TransactionLog implements Closeable {
 
   int lastAddSize;
 
+  // Adds are serialized outside the lock into a per-thread scratch buffer, so that only the copy
+  // into the log is synchronized. Larger records get a buffer of their own.
+  private static final int MAX_SCRATCH_SIZE = 64 * 1024;
+  private static final ThreadLocal<byte[]> scratchBuffer = new ThreadLocal<>();
+
+  private static byte[] getScratchBuffer(int size) {
+    if (size > MAX_SCRATCH_SIZE) {
+      return new byte[size];
+    }
+    byte[] buf = scratchBuffer.get();
+    if (buf == null || buf.length < size) {
+      buf = new byte[Math.max(size, 4096)];
+      scratchBuffer.set(buf);
+    }
+    return buf;
+  }
+
   /**
    * Writes an add update command to the transaction log. This is not applicable for in-place
    * updates; use {@link #write(AddUpdateCommand, long)}. (The previous pointer (applicable for
@@ -432,7 +462,7 @@ public class TransactionLog implements Closeable {
       // at least 256 bytes and at most 1 MB
       bufSize = Math.min(1024 * 1024, Math.max(256, bufSize + (bufSize >> 3) + 256));
 
-      MemOutputStream out = new MemOutputStream(new byte[bufSize]);
+      MemOutputStream out = new MemOutputStream(getScratchBuffer(bufSize));
       codec.init(out);
       if (cmd.isInPlaceUpdate()) {
         codec.writeTag(JavaBinCodec.ARR, 5);
@@ -561,6 +591,17 @@ public class TransactionLog implements Closeable {
     if (pos < 0) return null;
 
     try {
+      final IndexInput mapped = mappedLog;
+      if (mapped != null) {
+        // read-only, so nothing to flush, and no need to go through the channel
+        try (LogCodec codec = new LogCodec(resolver)) {
+          return codec.readVal(new MappedFastInputStream(channel, mapped, pos));
+        } catch (AlreadyClosedException e) {
+          // the log was closed, and unmapped, while reading it
+          throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+        }
+      }
+
       // make sure any unflushed buffer has been flushed
       synchronized (this) {
         // TODO: optimize this by keeping track of what we have flushed up to
@@ -573,7 +614,7 @@ public class TransactionLog implements Closeable {
         */
       }
 
-      DataInputInputStream is = channelInputStreamOpener.open(channel, pos);
+      DataInputInputStream is = openInputStream(pos);
       try (LogCodec codec = new LogCodec(resolver)) {
         return codec.readVal(is);
       }
@@ -613,18 +654,77 @@ public class TransactionLog implements Closeable {
    */
   public void closeOutput() {}
 
+  /**
+   * Memory-maps the log for reading. Must only be called once no more records will be written to
+   * it, i.e. once it is capped with a commit. Afterwards, lookups (real-time get) and new readers
+   * (replay, peer sync) read from the mapping instead of issuing a read on the channel per buffer
+   * fill. The log is unmapped when it is closed. Does nothing on Windows.
+   */
+  public void mapReadOnly() {
+    if (Constants.WINDOWS) {
+      return;
+    }
+    synchronized (this) {
+      if (mappedLog != null) {
+        return;
+      }
+      try {
+        fos.flush();
+        if (fos.size() == 0) {
+          return;
+        }
+        try (MMapDirectory dir = new MMapDirectory(tlog.getParent())) {
+          // the mapping must not outlive this log, so don't share it with the directory's others
+          dir.setGroupingFunction(MMapDirectory.NO_GROUPING);
+          mappedLog = dir.openInput(tlog.getFileName().toString(), IOContext.DEFAULT);
+        }
+      } catch (IOException e) {
+        log.warn("Could not memory-map {}; reading it through the channel", tlog, e);
+      }
+    }
+  }
+
+  /** Whether the log has been memory-mapped for reading. */
+  public boolean isMapped() {
+    return mappedLog != null;
+  }
+
+  private ChannelFastInputStream openInputStream(long position) throws IOException {
+    final IndexInput mapped = mappedLog;
+    if (mapped != null) {
+      return new MappedFastInputStream(channel, mapped, position);
+    }
+    return channelInputStreamOpener.open(channel, position);
+  }
+
   public void finish(UpdateLog.SyncLevel syncLevel) {
     if (syncLevel == UpdateLog.SyncLevel.NONE) return;
     try {
+      final long position;
       synchronized (this) {
         fos.flush();
+        position = fos.size();
       }
 
       if (syncLevel == UpdateLog.SyncLevel.FSYNC) {
-        // Since fsync is outside of synchronized block, we can end up with a partial
+        // Group commit: concurrent callers queue up here while one of them fsyncs, and that fsync
+        // covers everything flushed before it started. So the callers that were waiting usually
+        // find their records already synced, and many requests share one fsync.
+        // Since fsync is outside of synchronized(this), we can end up with a partial
         // last record on power failure (which is OK, and does not represent an error...
         // we just need to be aware of it when reading).
-        channel.force(true);
+        synchronized (syncLock) {
+          if (position <= syncedPosition) {
+            return;
+          }
+          final long syncPosition;
+          synchronized (this) {
+            fos.flush();
+            syncPosition = fos.size();
+          }
+          channel.force(true);
+          syncedPosition = syncPosition;
+        }
       }
 
     } catch (IOException e) {
@@ -641,7 +741,10 @@ public class TransactionLog implements Closeable {
 
       synchronized (this) {
         fos.flush();
-        fos.close();
+        final IndexInput mapped = mappedLog;
+        mappedLog = null;
+        // unmap now rather than when garbage collected, so that deleting the file frees its space
+        IOUtils.close(fos, mapped);
       }
 
       if (deleteOnClose) {
@@ -713,7 +816,7 @@ public class TransactionLog implements Closeable {
 
     public LogReader(long startingPos) throws IOException {
       incref();
-      fis = channelInputStreamOpener.open(channel, startingPos);
+      fis = openInputStream(startingPos);
     }
 
     // for classes that extend
@@ -883,7 +986,7 @@ public class TransactionLog implements Closeable {
         assert sz == getLogFileSize();
       }
 
-      fis = channelInputStreamOpener.open(channel, 0);
+      fis = openInputStream(0);
       if (sz >= 4) {
         // readHeader(fis);  // should not be needed
         prevPos = sz - 4;
@@ -1025,6 +1128,29 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /** Reads a memory-mapped, read-only log; see {@link #mapReadOnly()}. */
+  static class MappedFastInputStream extends ChannelFastInputStream {
+    private final IndexInput mapped;
+
+    MappedFastInputStream(FileChannel ch, IndexInput mapped, long chPosition) {
+      super(ch, chPosition);
+      // a clone has its own position, and reading it fails once the log is unmapped
+      this.mapped = mapped.clone();
+    }
+
+    @Override
+    public int readWrappedStream(byte[] target, int offset, int len) throws IOException {
+      final long remaining = mapped.length() - readFromStream;
+      if (remaining <= 0) {
+        return -1;
+      }
+      final int n = (int) Math.min(len, remaining);
+      mapped.seek(readFromStream);
+      mapped.readBytes(target, offset, n);
+      return n;
+    }
+  }
+
   /** Opens {@link OutputStream} from {@link FileChannel}. */
   protected interface OutputStreamOpener {
 
@@ -47,21 +47,18 @@ public class UpdateLocks {
   // Here we have a Map keyed by hash and a pool of locks to re-use.  Synchronization is needed 2x.
   //   Note:  ConcurrentHashMap was also explored but HPPC came out on top, probably because
   //          we can use a hashcode directly as the key, and it's GC friendly (zero-allocation).
+  // The map is itself striped by the high bits of the hash, so that updates of unrelated docs
+  //   don't all contend on a single monitor to get their lock when indexing concurrently.
 
-  /** Maps a ID hashcode to a lock. Synchronize to manipulate. */
-  private final IntObjectHashMap<LockAndCondition> hashToLock =
-      new IntObjectHashMap<>(32) {
-        @Override
-        protected int hashKey(int key) {
-          return key; // our keys are themselves hash-codes
-        }
-      };
+  private static final int STRIPE_BITS = 4;
 
-  /** A pool of locks to avoid creating & GC'ing them too much. Must synchronize on hashToLock. */
-  private final ArrayDeque<LockAndCondition> lockPool = new ArrayDeque<>(16);
+  private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
 
   public UpdateLocks(long docLockTimeoutMs) {
     this.docLockTimeoutMs = docLockTimeoutMs;
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
   }
 
   /**
@@ -81,6 +78,9 @@ public class UpdateLocks {
       // hashToLock isn't concurrent, but we synchronize on it briefly twice to do cheap work
 
       final int hash = id.hashCode();
+      // high bits, since the low ones pick the slot in hashToLock
+      final Stripe stripe = stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+      final IntObjectHashMap<LockAndCondition> hashToLock = stripe.hashToLock;
       final LockAndCondition lock;
       // get or insert lock, increment refcount
       synchronized (hashToLock) {
@@ -90,7 +90,7 @@ public class UpdateLocks {
           assert lock.refCount >= 1;
           lock.refCount++;
         } else {
-          lock = borrowLock();
+          lock = stripe.borrowLock();
           hashToLock.indexInsert(idx, hash, lock);
         }
       }
@@ -104,7 +104,7 @@ public class UpdateLocks {
           assert lock.refCount > 0; // because we incremented it
           if (--lock.refCount == 0) { // typical
             hashToLock.remove(hash);
-            returnLock(lock);
+            stripe.returnLock(lock);
           }
         }
       }
@@ -114,20 +114,35 @@ public class UpdateLocks {
     }
   }
 
-  private LockAndCondition borrowLock() {
-    assert Thread.holdsLock(hashToLock);
-    if (lockPool.isEmpty()) {
-      return new LockAndCondition();
-    } else {
-      return lockPool.removeLast();
+  /** The locks of the IDs whose hashcode falls in one stripe. */
+  private static class Stripe {
+    /** Maps a ID hashcode to a lock. Synchronize to manipulate. */
+    final IntObjectHashMap<LockAndCondition> hashToLock =
+        new IntObjectHashMap<>(8) {
+          @Override
+          protected int hashKey(int key) {
+            return key; // our keys are themselves hash-codes
+          }
+        };
+
+    /** A pool of locks to avoid creating & GC'ing them too much. Must synchronize on hashToLock. */
+    final ArrayDeque<LockAndCondition> lockPool = new ArrayDeque<>(4);
+
+    LockAndCondition borrowLock() {
+      assert Thread.holdsLock(hashToLock);
+      if (lockPool.isEmpty()) {
+        return new LockAndCondition();
+      } else {
+        return lockPool.removeLast();
+      }
     }
-  }
 
-  private void returnLock(LockAndCondition lock) {
-    assert Thread.holdsLock(hashToLock);
-    if (lockPool.size() < 16) {
-      lockPool.add(lock);
-      lock.refCount = 1; // ready for next use
+    void returnLock(LockAndCondition lock) {
+      assert Thread.holdsLock(hashToLock);
+      if (lockPool.size() < 4) {
+        lockPool.add(lock);
+        lock.refCount = 1; // ready for next use
+      }
     }
   }
 
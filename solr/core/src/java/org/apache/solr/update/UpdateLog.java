@@ -225,6 +225,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected final int numDeletesByQueryToKeep = 100;
   protected int numRecordsToKeep;
   protected int maxNumLogsToKeep;
+  // memory-map capped logs for reading (RTG, replay); opt-in
+  protected boolean mapClosedLogs;
   protected boolean existOldBufferLog = false;
 
   // keep track of deletes only... this is not updated on an add
@@ -382,6 +384,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     numRecordsToKeep = objToInt(info.initArgs.get("numRecordsToKeep"), 100);
     maxNumLogsToKeep = objToInt(info.initArgs.get("maxNumLogsToKeep"), 10);
+    Object mapClosedLogsArg = info.initArgs.get("mapClosedLogs");
+    mapClosedLogs = mapClosedLogsArg != null && Boolean.parseBoolean(mapClosedLogsArg.toString());
     if (info.initArgs.get("numVersionBuckets") != null) {
       log.warn("numVersionBuckets is obsolete");
     }
@@ -1088,6 +1092,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         // TODO: check that this works to cap a tlog we were using to buffer so we don't replay on
         // startup.
         prevTlog.writeCommit(cmd);
+        if (mapClosedLogs) {
+          prevTlog.mapReadOnly();
+        }
 
         addOldLog(prevTlog, true);
         // the old log list will decref when no longer needed
@@ -1408,6 +1415,9 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       try {
         if (ll.endsWithCommit()) {
           ll.closeOutput();
+          if (mapClosedLogs) {
+            ll.mapReadOnly();
+          }
           ll.decref();
           continue;
         }
@@ -66,6 +66,8 @@ public class TestConfig extends SolrTestCaseJ4 {
     assertNull(sc.filterCacheConfig);
     assertNull(sc.queryResultCacheConfig);
     assertNull(sc.documentCacheConfig);
+    assertEquals(-1, sc.segmentFilterCacheMaxRamMB);
+    assertEquals(-1, sc.segmentFacetCountCacheMaxRamMB);
     //
     assertNotNull(sc.userCacheConfigs);
     assertEquals(Map.of(), sc.userCacheConfigs);
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.solr.BaseDistributedSearchTestCase;
+import org.apache.solr.client.solrj.response.PivotField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.FacetParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that a distributed pivot facet gives the same response as the control collection, which
+ * sees all counts up front and so needs no refinement at all, while the values that can't be part
+ * of the response are pruned from each level before the next level is refined.
+ *
+ * @see PivotFacetFieldValueCollection#pruneRefinedValues
+ */
+public class DistributedFacetPivotPruningTest extends BaseDistributedSearchTestCase {
+
+  private static final String[] FIELDS = {"x_s", "y_s", "z_s"};
+  private static final String PIVOT = String.join(",", FIELDS);
+
+  /** Value paths of the refinement requests received by the shards, see {@link #checkPivot} */
+  private static final List<List<String>> refinedPaths =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private int numDeepRefinements = 0;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-pivot-refinement.xml", "schema.xml");
+  }
+
+  @Test
+  @ShardsFixed(num = 3)
+  public void test() throws Exception {
+    del("*:*");
+    // few enough values per field that the shards' overrequest returns all of them, so the
+    // distributed counts must match the control collection exactly
+    for (int id = 0; id < 300; id++) {
+      final int x = skewed(8);
+      // most docs go to the shard of their top level value, so that each shard lacks values the
+      // other shards have, and those values need to be refined
+      final int shard =
+          random().nextInt(4) == 0 ? random().nextInt(clients.size()) : x % clients.size();
+      indexDoc(
+          clients.get(shard),
+          sdoc(id, id, "x_s", "x" + x, "y_s", "y" + skewed(6), "z_s", "z" + skewed(5)));
+    }
+    commit();
+
+    handle.clear();
+    handle.put("QTime", SKIPVAL);
+    handle.put("timestamp", SKIPVAL);
+    handle.put("maxScore", SKIPVAL);
+
+    // an offset and a mincount on every level, where refining below values that are skipped or
+    // under the mincount would be wasted
+    for (String sort : new String[] {FacetParams.FACET_SORT_INDEX, FacetParams.FACET_SORT_COUNT}) {
+      final ModifiableSolrParams p = params("q", "*:*", "rows", "0", "facet", "true");
+      p.set(FacetParams.FACET_PIVOT, PIVOT);
+      for (String field : FIELDS) {
+        setFieldParams(p, field, sort, 1, 2, 3);
+      }
+      checkPivot(p);
+    }
+
+    for (int i = 0; i < 30; i++) {
+      final ModifiableSolrParams p = params("q", "*:*", "rows", "0", "facet", "true");
+      p.set(FacetParams.FACET_PIVOT, PIVOT);
+      for (String field : FIELDS) {
+        final int offset = random().nextInt(3);
+        // no offset with an unlimited facet: the shards would then be asked for offset-1 values
+        final int limit = offset == 0 && random().nextInt(5) == 0 ? -1 : 1 + random().nextInt(4);
+        setFieldParams(
+            p,
+            field,
+            random().nextBoolean() ? FacetParams.FACET_SORT_INDEX : FacetParams.FACET_SORT_COUNT,
+            offset,
+            limit,
+            1 + random().nextInt(4));
+      }
+      checkPivot(p);
+    }
+
+    assertTrue("no level below the top level was ever refined", 0 < numDeepRefinements);
+  }
+
+  /**
+   * Compares the distributed response with the control collection, then checks that every level
+   * below the top was only refined for values that are part of that response, i.e. that values
+   * outside of the offset, limit or mincount of a level were dropped, with their sub-pivots,
+   * before the level below them was refined.
+   */
+  private void checkPivot(SolrParams p) throws Exception {
+    refinedPaths.clear();
+    final QueryResponse rsp = query(p);
+
+    final Set<List<String>> responsePaths = new HashSet<>();
+    collectPaths(rsp.getFacetPivot().get(PIVOT), new ArrayList<>(), responsePaths);
+    synchronized (refinedPaths) {
+      for (List<String> path : refinedPaths) {
+        if (1 < path.size()) {
+          numDeepRefinements++;
+          assertTrue(
+              p + " refined " + path + " below a value that was not in the response",
+              responsePaths.contains(path.subList(0, path.size() - 1)));
+        }
+      }
+    }
+  }
+
+  private static void collectPaths(
+      List<PivotField> pivots, List<String> parentPath, Set<List<String>> paths) {
+    if (null == pivots) {
+      return;
+    }
+    for (PivotField pivot : pivots) {
+      final List<String> path = new ArrayList<>(parentPath);
+      path.add(String.valueOf(pivot.getValue()));
+      paths.add(path);
+      collectPaths(pivot.getPivot(), path, paths);
+    }
+  }
+
+  private static void setFieldParams(
+      ModifiableSolrParams p, String field, String sort, int offset, int limit, int mincount) {
+    final String prefix = "f." + field + ".";
+    p.set(prefix + FacetParams.FACET_SORT, sort);
+    p.set(prefix + FacetParams.FACET_OFFSET, offset);
+    p.set(prefix + FacetParams.FACET_LIMIT, limit);
+    p.set(prefix + FacetParams.FACET_PIVOT_MINCOUNT, mincount);
+  }
+
+  /** A value in [0, n), the lower ones being more frequent */
+  private static int skewed(int n) {
+    return random().nextInt(1 + random().nextInt(n));
+  }
+
+  /** Records the value paths that pivot refinement requests ask the shards for. */
+  public static class RefinementRecorder extends SearchComponent {
+
+    @Override
+    public void prepare(ResponseBuilder rb) {
+      final SolrParams params = rb.req.getParams();
+      final Iterator<String> names = params.getParameterNamesIterator();
+      while (names.hasNext()) {
+        final String name = names.next();
+        if (name.startsWith(PivotFacet.REFINE_PARAM)) {
+          for (String valuePath : params.getParams(name)) {
+            refinedPaths.add(PivotFacetHelper.decodeRefinementValuePath(valuePath));
+          }
+        }
+      }
+    }
+
+    @Override
+    public void process(ResponseBuilder rb) {}
+
+    @Override
+    public String getDescription() {
+      return "Records pivot facet refinement requests";
+    }
+  }
+}
@@ -210,6 +210,34 @@ public class ParallelHttpShardHandlerTest extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testFailingResponseListenerCancelsOutstandingRequests() throws Exception {
+    ParallelHttpShardHandlerFactory factory = new ParallelHttpShardHandlerFactory();
+    factory.commExecutor = new DirectExecutorService();
+    ParallelHttpShardHandler handler = new ParallelHttpShardHandler(factory);
+
+    // the first shard answers right away, the second one never does
+    CompletableFuture<LBSolrClient.Rsp> outstanding = new CompletableFuture<>();
+    LBAsyncSolrClient mockLb = Mockito.mock(LBAsyncSolrClient.class);
+    Mockito.when(mockLb.requestAsync(Mockito.any(LBSolrClient.Req.class)))
+        .thenReturn(CompletableFuture.completedFuture(new LBSolrClient.Rsp()))
+        .thenReturn(outstanding);
+    handler.lbClient = mockLb;
+
+    ShardRequest sreq = buildShardRequest("shardA");
+    sreq.actualShards = new String[] {"shardA", "shardB"};
+    sreq.responseListener =
+        rsp -> {
+          throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "merge failed");
+        };
+    handler.submit(sreq, "shardA", sreq.params);
+    handler.submit(sreq, "shardB", sreq.params);
+
+    SolrException e = expectThrows(SolrException.class, handler::takeCompletedIncludingErrors);
+    assertEquals("merge failed", e.getMessage());
+    assertTrue("the outstanding shard request should be canceled", outstanding.isCancelled());
+  }
+
   private ShardRequest buildShardRequest(String shard) {
     ShardRequest sreq = new ShardRequest();
     sreq.params = new ModifiableSolrParams();
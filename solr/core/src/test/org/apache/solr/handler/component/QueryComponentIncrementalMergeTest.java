@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.search.SortField;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.search.SortSpec;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Merging the responses of a {@link ShardRequest#PURPOSE_GET_TOP_IDS} request one by one as they
+ * come in gives the same result as merging them all at once.
+ */
+public class QueryComponentIncrementalMergeTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void setup() {
+    assumeWorkingMockito();
+  }
+
+  @Test
+  public void testIncrementalMergeMatchesMergeAll() {
+    int numShards = 2 + random().nextInt(6);
+    List<SolrDocumentList> shardDocs = new ArrayList<>();
+    for (int shard = 0; shard < numShards; shard++) {
+      SolrDocumentList docs = new SolrDocumentList();
+      int numDocs = random().nextInt(15);
+      for (int i = 0; i < numDocs; i++) {
+        SolrDocument doc = new SolrDocument();
+        // some ids are returned by more than one shard
+        doc.addField("id", random().nextInt(50));
+        doc.addField("score", random().nextFloat());
+        docs.add(doc);
+      }
+      docs.setNumFound(numDocs);
+      shardDocs.add(docs);
+    }
+
+    MockResponseBuilder mergedAll = MockResponseBuilder.create().withSortSpec(scoreSort());
+    MockShardRequest all = MockShardRequest.create();
+    for (SolrDocumentList docs : shardDocs) {
+      all.withShardResponse(new NamedList<>(), docs);
+    }
+    QueryComponent queryComponent = new QueryComponent();
+    queryComponent.mergeIds(mergedAll, all);
+
+    MockResponseBuilder mergedIncrementally =
+        MockResponseBuilder.create().withSortSpec(scoreSort());
+    MockShardRequest incremental = MockShardRequest.create();
+    incremental.responseListener =
+        queryComponent.new ShardIdsMerger(mergedIncrementally, incremental);
+    for (SolrDocumentList docs : shardDocs) {
+      // as the ShardHandler does when taking each response
+      incremental.withShardResponse(new NamedList<>(), docs);
+      incremental.responseListener.accept(incremental.responses.getLast());
+    }
+    queryComponent.mergeIds(mergedIncrementally, incremental);
+
+    assertEquals(
+        mergedAll.getResponseDocs().getNumFound(),
+        mergedIncrementally.getResponseDocs().getNumFound());
+    assertEquals(
+        mergedAll.getResponseDocs().getMaxScore(),
+        mergedIncrementally.getResponseDocs().getMaxScore());
+    assertEquals(mergedAll.resultIds.keySet(), mergedIncrementally.resultIds.keySet());
+    for (Object id : mergedAll.resultIds.keySet()) {
+      assertEquals(
+          mergedAll.resultIds.get(id).positionInResponse,
+          mergedIncrementally.resultIds.get(id).positionInResponse);
+    }
+  }
+
+  private static SortSpec scoreSort() {
+    return MockSortSpecBuilder.create()
+        .withSortFields(new SortField[] {SortField.FIELD_SCORE})
+        .withIncludesNonScoreOrDocSortField(false)
+        .build();
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.List;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.impl.LBSolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.junit.Test;
+
+public class ShardLatencyTrackerTest extends SolrTestCase {
+
+  @Test
+  public void testPercentile() {
+    ShardLatencyTracker tracker = new ShardLatencyTracker(95f);
+    for (int i = 1; i < ShardLatencyTracker.MIN_SAMPLES; i++) {
+      tracker.record(i);
+      assertEquals(-1, tracker.getPercentile());
+    }
+    tracker.record(ShardLatencyTracker.MIN_SAMPLES);
+    assertEquals(95, tracker.getPercentile());
+  }
+
+  @Test
+  public void testWindowSlides() {
+    ShardLatencyTracker tracker = new ShardLatencyTracker(50f);
+    for (int i = 0; i < ShardLatencyTracker.WINDOW; i++) {
+      tracker.record(1000);
+    }
+    assertEquals(1000, tracker.getPercentile());
+    // a full window of faster responses replaces the slow ones
+    for (int i = 0; i < ShardLatencyTracker.WINDOW; i++) {
+      tracker.record(10);
+    }
+    assertEquals(10, tracker.getPercentile());
+  }
+
+  @Test
+  public void testHedgeDelayPerCollectionAndPurpose() {
+    HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    assertNull(factory.getLatencyTracker("coll", ShardRequest.PURPOSE_GET_TOP_IDS, null));
+    factory.hedgeRequests = true;
+
+    ShardLatencyTracker topIds =
+        factory.getLatencyTracker("coll", ShardRequest.PURPOSE_GET_TOP_IDS, null);
+    ShardLatencyTracker fields =
+        factory.getLatencyTracker("coll", ShardRequest.PURPOSE_GET_FIELDS, null);
+    assertNotSame(topIds, fields);
+    for (int i = 0; i < ShardLatencyTracker.MIN_SAMPLES; i++) {
+      topIds.record(500);
+      fields.record(20);
+    }
+
+    // each purpose is hedged after its own response times...
+    assertEquals(
+        500,
+        factory.getHedgeDelay(
+            factory.getLatencyTracker("coll", ShardRequest.PURPOSE_GET_TOP_IDS, null)));
+    assertEquals(
+        20,
+        factory.getHedgeDelay(
+            factory.getLatencyTracker("coll", ShardRequest.PURPOSE_GET_FIELDS, null)));
+    // ...and nothing is known yet of other purposes or collections
+    assertEquals(
+        -1,
+        factory.getHedgeDelay(
+            factory.getLatencyTracker("coll", ShardRequest.PURPOSE_REFINE_FACETS, null)));
+    assertEquals(
+        -1,
+        factory.getHedgeDelay(
+            factory.getLatencyTracker("other", ShardRequest.PURPOSE_GET_TOP_IDS, null)));
+
+    // without a collection, a shard is known by its replicas, whatever order they are tried in
+    LBSolrClient.Endpoint a = new LBSolrClient.Endpoint("http://a/solr");
+    LBSolrClient.Endpoint b = new LBSolrClient.Endpoint("http://b/solr");
+    LBSolrClient.Req replicas = new LBSolrClient.Req(new QueryRequest(), List.of(a, b));
+    LBSolrClient.Req reversed = new LBSolrClient.Req(new QueryRequest(), List.of(b, a));
+    assertSame(
+        factory.getLatencyTracker(null, ShardRequest.PURPOSE_GET_TOP_IDS, replicas),
+        factory.getLatencyTracker(null, ShardRequest.PURPOSE_GET_TOP_IDS, reversed));
+    assertNotSame(
+        factory.getLatencyTracker(null, ShardRequest.PURPOSE_GET_TOP_IDS, replicas),
+        factory.getLatencyTracker(null, ShardRequest.PURPOSE_GET_FIELDS, replicas));
+  }
+
+  @Test
+  public void testInvalidPercentile() {
+    expectThrows(IllegalArgumentException.class, () -> new ShardLatencyTracker(0f));
+    expectThrows(IllegalArgumentException.class, () -> new ShardLatencyTracker(101f));
+  }
+}
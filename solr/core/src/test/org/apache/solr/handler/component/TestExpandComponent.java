@@ -21,6 +21,7 @@ import java.util.Collections;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.Utils;
 import org.apache.solr.search.CollapsingQParserPlugin;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -933,6 +934,66 @@ public class TestExpandComponent extends SolrTestCaseJ4 {
             + "']/doc[2]/str[@name='id'][.='2']");
   }
 
+  @Test
+  public void testSinglePassMatchesSearch() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      if (random().nextInt(10) == 0) {
+        assertU(adoc("id", Integer.toString(i), "test_i", Integer.toString(random().nextInt(20))));
+      } else {
+        String group = Integer.toString(random().nextInt(8));
+        assertU(
+            adoc(
+                "id",
+                Integer.toString(i),
+                "group_s",
+                group,
+                "group_i",
+                group,
+                // few distinct values, so that scores tie
+                "test_i",
+                Integer.toString(random().nextInt(20))));
+      }
+      if (random().nextInt(25) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    for (String field : new String[] {"group_s", "group_i"}) {
+      for (boolean facet : new boolean[] {false, true}) {
+        assertSinglePassMatchesSearch(field, facet);
+      }
+    }
+  }
+
+  private void assertSinglePassMatchesSearch(String field, boolean facet) throws Exception {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.add("q", "*:*");
+    params.add("fq", "{!collapse field=" + field + " nullPolicy=expand}");
+    params.add("fq", "{!tag=t}test_i:[0 TO 15]");
+    params.add("defType", "edismax");
+    params.add("bf", "field(test_i)");
+    params.add("fl", "id");
+    params.add("rows", Integer.toString(1 + random().nextInt(10)));
+    params.add("expand", "true");
+    params.add("expand.rows", Integer.toString(random().nextInt(8)));
+    params.add("wt", "json");
+    params.add("omitHeader", "true");
+    if (facet) {
+      // faceting runs the collapse filter again, without scores and over more documents
+      params.add("facet", "true");
+      params.add("facet.field", "{!ex=t}" + field);
+    }
+
+    // the main query result is cached first: the single pass must not expand from a DocSet
+    // computed for a cached result, neither on the first request nor on repeated ones
+    Object searched = Utils.fromJSONString(h.query(req(params)));
+    for (int i = 0; i < 2; i++) {
+      Object singlePass = Utils.fromJSONString(h.query(req(params, "expand.singlePass", "true")));
+      assertEquals(searched, singlePass);
+    }
+  }
+
   @Test
   public void testExpandWithEmptyIndexReturnsZeroResults() {
 
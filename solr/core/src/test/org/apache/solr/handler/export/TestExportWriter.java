@@ -17,7 +17,10 @@
 package org.apache.solr.handler.export;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,12 +33,19 @@ import java.util.Map;
 import java.util.Set;
 import org.apache.lucene.tests.util.TestUtil;
 import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.io.stream.ColumnarTupleStreamParser;
+import org.apache.solr.client.solrj.io.stream.JavabinTupleStreamParser;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.StreamParams;
 import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.common.util.Utils;
+import org.apache.solr.handler.admin.api.ReplicationAPIBase;
 import org.apache.solr.index.LogDocMergePolicyFactory;
 import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.schema.SchemaField;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -1770,4 +1780,152 @@ public class TestExportWriter extends SolrTestCaseJ4 {
         "Error message should mention DocValues requirement",
         ex.getMessage().contains("DocValues"));
   }
+
+  @Test
+  public void testParallelSort() throws Exception {
+    clearIndex();
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      assertU(
+          adoc(
+              "id",
+              String.valueOf(i),
+              "intdv",
+              String.valueOf(random().nextInt(100)),
+              "stringdv",
+              TestUtil.randomSimpleString(random(), 1, 3)));
+      if (i % 100 == 99) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    for (String sort : new String[] {"intdv asc,id desc", "stringdv desc,intdv asc", "id asc"}) {
+      // a small queue makes each segment go through several chunks
+      String queueSize = String.valueOf(TestUtil.nextInt(random(), 10, 200));
+      String expected =
+          h.query(
+              req(
+                  "q", "*:*",
+                  "qt", "/export",
+                  "fl", "id,intdv,stringdv",
+                  "sort", sort,
+                  "queueSize", queueSize));
+      String actual =
+          h.query(
+              req(
+                  "q", "*:*",
+                  "qt", "/export",
+                  "fl", "id,intdv,stringdv",
+                  "sort", sort,
+                  "queueSize", queueSize,
+                  ExportWriter.SORT_THREADS_PARAM, "4"));
+      assertEquals(sort, expected, actual);
+    }
+  }
+
+  @Test
+  public void testColumnarFormat() throws Exception {
+    clearIndex();
+    int numDocs = atLeast(50);
+    for (int i = 0; i < numDocs; i++) {
+      SolrInputDocument doc = new SolrInputDocument("id", String.valueOf(i));
+      // leave out some values so batches have missing values at any position
+      if (random().nextInt(5) != 0) doc.addField("intdv", random().nextInt());
+      if (random().nextInt(5) != 0) doc.addField("longdv", random().nextLong());
+      if (random().nextInt(5) != 0) doc.addField("floatdv", random().nextFloat());
+      if (random().nextInt(5) != 0) doc.addField("doubledv", random().nextDouble());
+      if (random().nextInt(5) != 0) doc.addField("datedv", randomSkewedDate());
+      if (random().nextInt(5) != 0) doc.addField("booleandv", random().nextBoolean());
+      if (random().nextInt(5) != 0) {
+        doc.addField("stringdv", TestUtil.randomSimpleString(random(), 1, 5));
+      }
+      for (int j = random().nextInt(3); j > 0; j--) {
+        doc.addField("intdv_m", random().nextInt());
+        doc.addField("stringdv_m", TestUtil.randomSimpleString(random(), 1, 5));
+      }
+      assertU(adoc(doc));
+      if (random().nextInt(10) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    String[] params = {
+      "q",
+      "*:*",
+      "fl",
+      "id,intdv,longdv,floatdv,doubledv,datedv,booleandv,stringdv,intdv_m,stringdv_m",
+      "sort",
+      "intdv asc,id desc"
+    };
+    List<Map<String, Object>> docs = exportJavabin(false, params);
+    assertEquals(numDocs, docs.size());
+    assertEquals(docs, exportJavabin(true, params));
+  }
+
+  @Test
+  public void testColumnarFormatMultipleBatches() throws Exception {
+    assertU(delQ("*:*"));
+    assertU(commit());
+    createLargeIndex();
+
+    String[] params = {"q", "*:*", "fl", "id,sortabledv_udvas,small_i_p", "sort", "id asc"};
+    List<Map<String, Object>> docs = exportJavabin(false, params);
+    assertEquals(100000, docs.size());
+    assertEquals(docs, exportJavabin(true, params));
+  }
+
+  @Test
+  public void testColumnarFormatRequiresJavabin() throws Exception {
+    clearIndex();
+    assertU(adoc("id", "1", "intdv", "1"));
+    assertU(commit());
+
+    String resp =
+        h.query(
+            req(
+                "q", "*:*",
+                "qt", "/export",
+                "fl", "id",
+                "sort", "intdv asc",
+                StreamParams.EXPORT_FORMAT, StreamParams.COLUMNAR));
+    assertTrue(resp, resp.contains("requires wt=javabin"));
+  }
+
+  private List<Map<String, Object>> exportJavabin(boolean columnar, String... params)
+      throws Exception {
+    ModifiableSolrParams solrParams = params(params);
+    solrParams.set(CommonParams.WT, CommonParams.JAVABIN);
+    if (columnar) {
+      solrParams.set(StreamParams.EXPORT_FORMAT, StreamParams.COLUMNAR);
+    }
+    SolrQueryRequest req = req(solrParams);
+    SolrQueryResponse rsp = new SolrQueryResponse();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+    try {
+      h.getCore().execute(h.getCore().getRequestHandler("/export"), req, rsp);
+      try (ExportWriter writer =
+          (ExportWriter) rsp.getValues().get(ReplicationAPIBase.FILE_STREAM)) {
+        writer.write(out);
+      }
+    } finally {
+      SolrRequestInfo.clearRequestInfo();
+      req.close();
+    }
+
+    InputStream in = new ByteArrayInputStream(out.toByteArray());
+    List<Map<String, Object>> docs = new ArrayList<>();
+    try (JavabinTupleStreamParser parser =
+        columnar
+            ? new ColumnarTupleStreamParser(in, true)
+            : new JavabinTupleStreamParser(in, true)) {
+      for (Map<String, Object> doc = parser.next(); doc != null; doc = parser.next()) {
+        assertNull(doc.toString(), doc.get(StreamParams.EXCEPTION));
+        docs.add(doc);
+      }
+    }
+    return docs;
+  }
 }
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Random;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermsEnum;
@@ -29,8 +30,11 @@ import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.search.facet.UnInvertedField;
 import org.apache.solr.uninverting.DocTermOrds;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -41,9 +45,15 @@ public class TestFaceting extends SolrTestCaseJ4 {
     // we need DVs on point fields to compute stats & facets
     if (Boolean.getBoolean(NUMERIC_POINTS_SYSPROP))
       System.setProperty(NUMERIC_DOCVALUES_SYSPROP, "true");
+    System.setProperty(UnInvertedField.OFF_HEAP_PROP, Boolean.toString(random().nextBoolean()));
     initCore("solrconfig.xml", "schema11.xml");
   }
 
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty(UnInvertedField.OFF_HEAP_PROP);
+  }
+
   @Override
   public void setUp() throws Exception {
     super.setUp();
@@ -147,6 +157,52 @@ public class TestFaceting extends SolrTestCaseJ4 {
     // doTermEnum(DEFAULT_INDEX_INTERVAL * 3 + 3);
   }
 
+  @Test
+  public void testOffHeapUnInvertedField() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      List<String> fields = new ArrayList<>(List.of("id", Integer.toString(i)));
+      // enough values for the term numbers of most docs not to be inlined
+      for (int j = random().nextInt(20); j > 0; j--) {
+        fields.add("f_ss");
+        fields.add(t(random().nextInt(1000)));
+      }
+      assertU(adoc(fields.toArray(new String[0])));
+    }
+    assertU(commit());
+
+    close();
+    req = lrf.makeRequest("q", "*:*");
+    SolrIndexSearcher searcher = req.getSearcher();
+    final String offHeap = System.getProperty(UnInvertedField.OFF_HEAP_PROP);
+    UnInvertedField heapUif;
+    UnInvertedField mappedUif;
+    try {
+      System.setProperty(UnInvertedField.OFF_HEAP_PROP, "false");
+      heapUif = new UnInvertedField("f_ss", searcher);
+      System.setProperty(UnInvertedField.OFF_HEAP_PROP, "true");
+      mappedUif = new UnInvertedField("f_ss", searcher);
+    } finally {
+      System.setProperty(UnInvertedField.OFF_HEAP_PROP, offHeap);
+    }
+    assertFalse(heapUif.isOffHeap());
+    assertTrue(mappedUif.isOffHeap());
+    assertFalse(mappedUif.isEmpty());
+
+    LeafReader reader = searcher.getSlowAtomicReader();
+    SortedSetDocValues expected = heapUif.iterator(reader);
+    SortedSetDocValues actual = mappedUif.iterator(reader);
+    for (int doc = 0; doc < reader.maxDoc(); doc++) {
+      boolean hasValues = expected.advanceExact(doc);
+      assertEquals(hasValues, actual.advanceExact(doc));
+      if (hasValues) {
+        assertEquals(expected.docValueCount(), actual.docValueCount());
+        for (int i = 0; i < expected.docValueCount(); i++) {
+          assertEquals(expected.nextOrd(), actual.nextOrd());
+        }
+      }
+    }
+  }
+
   @Test
   public void testFacets() {
     StringBuilder sb = new StringBuilder();
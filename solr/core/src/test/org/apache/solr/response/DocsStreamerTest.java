@@ -41,4 +41,25 @@ public class DocsStreamerTest extends SolrTestCaseJ4 {
       assertEquals(values.get(idx - 1), value);
     }
   }
+
+  public void testBatchesKeepResultOrder() throws Exception {
+    clearIndex();
+    int numDocs = DocsStreamer.FETCH_BATCH_SIZE + random().nextInt(DocsStreamer.FETCH_BATCH_SIZE);
+    for (int i = 0; i < numDocs; i++) {
+      assertU(adoc("id", Integer.toString(i), "rank_i", Integer.toString(numDocs - i)));
+      if (random().nextInt(50) == 0) {
+        assertU(commit()); // documents of several segments
+      }
+    }
+    assertU(commit());
+
+    // rank_i asc runs against the order the documents were added in
+    String[] tests = new String[numDocs + 1];
+    tests[0] = "*[count(//doc)=" + numDocs + "]";
+    for (int i = 0; i < numDocs; i++) {
+      tests[i + 1] =
+          "//result/doc[" + (i + 1) + "]/str[@name='id'][.='" + (numDocs - 1 - i) + "']";
+    }
+    assertQ(req("q", "*:*", "sort", "rank_i asc", "rows", Integer.toString(numDocs)), tests);
+  }
 }
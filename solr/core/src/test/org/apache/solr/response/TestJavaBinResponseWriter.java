@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.SolrTestCaseJ4;
@@ -136,4 +137,66 @@ public class TestJavaBinResponseWriter extends SolrTestCaseJ4 {
     assertEquals("Wrong number of fields found", 2, out.getFieldNames().size());
     req.close();
   }
+
+  public void testDocValuesOnlyFields() throws Exception {
+    clearIndex();
+    assertU(adoc("id", "1", "a_i_dvo", "10", "b_l_dvo", "100"));
+    assertU(adoc("id", "2", "a_i_dvo", "20"));
+    assertU(commit());
+    assertU(adoc("id", "3", "b_l_dvo", "300"));
+    assertU(commit());
+
+    SolrQueryRequest req = req("q", "*:*", "fl", "a_i_dvo,b_l_dvo", "sort", "id desc");
+    SolrQueryResponse rsp = h.queryAndResponse(null, req);
+    NamedList<Object> res = JavaBinResponseWriter.getParsedResponse(req, rsp);
+    req.close();
+
+    SolrDocumentList docs = (SolrDocumentList) res.get("response");
+    assertEquals(3, docs.size());
+    assertEquals(Set.of("b_l_dvo"), docs.get(0).getFieldNames());
+    assertEquals(300L, docs.get(0).getFieldValue("b_l_dvo"));
+    assertEquals(Set.of("a_i_dvo"), docs.get(1).getFieldNames());
+    assertEquals(20, docs.get(1).getFieldValue("a_i_dvo"));
+    assertEquals(10, docs.get(2).getFieldValue("a_i_dvo"));
+    assertEquals(100L, docs.get(2).getFieldValue("b_l_dvo"));
+
+    // the text writers read the same values
+    assertQ(
+        req("q", "*:*", "fl", "a_i_dvo,b_l_dvo", "sort", "id desc"),
+        "*[count(//doc)=3]",
+        "*[count(//doc[1]/*)=1]",
+        "//doc[1]/long[@name='b_l_dvo'][.='300']",
+        "*[count(//doc[2]/*)=1]",
+        "//doc[2]/int[@name='a_i_dvo'][.='20']",
+        "//doc[3]/int[@name='a_i_dvo'][.='10']",
+        "//doc[3]/long[@name='b_l_dvo'][.='100']");
+  }
+
+  public void testDocValuesOnlySubquery() throws Exception {
+    clearIndex();
+    assertU(adoc("id", "1", "a_i_dvo", "10"));
+    assertU(adoc("id", "2", "a_i_dvo", "20"));
+    assertU(commit());
+
+    // the subquery documents are already fetched, they have no searcher to read docValues from
+    String[] params = {
+      "q", "id:1", "fl", "id,sub:[subquery]", "sub.q", "{!term f=id v=$row.id}", "sub.fl", "a_i_dvo"
+    };
+    SolrQueryRequest req = req(params);
+    SolrQueryResponse rsp = h.queryAndResponse(null, req);
+    NamedList<Object> res = JavaBinResponseWriter.getParsedResponse(req, rsp);
+    req.close();
+
+    SolrDocumentList docs = (SolrDocumentList) res.get("response");
+    assertEquals(1, docs.size());
+    SolrDocumentList sub = (SolrDocumentList) docs.get(0).getFieldValue("sub");
+    assertEquals(1, sub.size());
+    assertEquals(10, sub.get(0).getFieldValue("a_i_dvo"));
+
+    assertQ(
+        req(params),
+        "*[count(//doc)=2]",
+        "//result[@name='response']/doc/str[@name='id'][.='1']",
+        "//result[@name='sub']/doc/int[@name='a_i_dvo'][.='10']");
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+public class TestGroupTopDocsBuffer extends SolrTestCase {
+
+  @Test
+  public void testKeepsTopDocsOfEachGroup() {
+    final int size = 1 + random().nextInt(GroupTopDocsBuffer.MAX_SIZE);
+    final GroupTopDocsBuffer buffer = new GroupTopDocsBuffer(new MatchAllDocsQuery(), size);
+    // run twice, since the buffer is cleared and reused by a collector that collects again
+    for (int run = 0; run < 2; run++) {
+      final Map<Integer, List<ScoreDoc>> expected = new HashMap<>();
+      final int numGroups = 1 + random().nextInt(50);
+      buffer.start();
+      for (int doc = 0; doc < 2000; doc++) {
+        // most groups get a single document, a few get many
+        final int group =
+            random().nextInt(4) == 0 ? random().nextInt(3) : random().nextInt(numGroups * 20);
+        // few distinct scores, to check that ties keep the lower doc id
+        final float score = random().nextInt(10);
+        buffer.collect(group, doc, score);
+        expected.computeIfAbsent(group, g -> new ArrayList<>()).add(new ScoreDoc(doc, score));
+      }
+      buffer.finish();
+
+      final int[] docs = new int[size];
+      final float[] scores = new float[size];
+      for (Map.Entry<Integer, List<ScoreDoc>> entry : expected.entrySet()) {
+        final List<ScoreDoc> groupDocs = entry.getValue();
+        groupDocs.sort(
+            Comparator.comparingDouble((ScoreDoc sd) -> -sd.score).thenComparingInt(sd -> sd.doc));
+        assertEquals(groupDocs.size(), buffer.getCount(entry.getKey()));
+        final int kept = buffer.getTopDocs(entry.getKey(), docs, scores);
+        assertEquals(Math.min(size, groupDocs.size()), kept);
+        for (int i = 0; i < kept; i++) {
+          assertEquals(groupDocs.get(i).doc, docs[i]);
+          assertEquals(groupDocs.get(i).score, scores[i], 0f);
+        }
+      }
+      assertEquals(0, buffer.getCount(-1));
+      assertEquals(0, buffer.getTopDocs(-1, docs, scores));
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/** Tests {@code earlyTerminateOnIndexSort} with segments sorted by {@code timestamp_i_dvo desc}. */
+public class TestIndexSortEarlyTermination extends SolrTestCaseJ4 {
+
+  private static final int NUM_DOCS = 200;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("earlyTerminateOnIndexSort", "true");
+    initCore("solrconfig-sortingmergepolicyfactory.xml", "schema.xml");
+
+    for (int i = 0; i < NUM_DOCS; i++) {
+      assertU(adoc("id", Integer.toString(i), "timestamp_i_dvo", Integer.toString(i)));
+      if (random().nextInt(50) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("earlyTerminateOnIndexSort");
+  }
+
+  public void testSortMatchesIndexSort() {
+    assertQ(
+        req("q", "*:*", "sort", "timestamp_i_dvo desc", "rows", "3", "fl", "id"),
+        "//*[@numFoundExact='false']",
+        "//*[@numFound<='" + NUM_DOCS + "']",
+        "//result/doc[1]/str[@name='id'][.='199']",
+        "//result/doc[2]/str[@name='id'][.='198']",
+        "//result/doc[3]/str[@name='id'][.='197']");
+
+    // paging
+    assertQ(
+        req("q", "*:*", "sort", "timestamp_i_dvo desc", "start", "5", "rows", "2", "fl", "id"),
+        "//*[@numFoundExact='false']",
+        "//result/doc[1]/str[@name='id'][.='194']",
+        "//result/doc[2]/str[@name='id'][.='193']");
+  }
+
+  public void testExactCountWhenNotApplicable() {
+    // sort is not a prefix of the index sort
+    assertQ(
+        req("q", "*:*", "sort", "timestamp_i_dvo asc", "rows", "3", "fl", "id"),
+        "//*[@numFoundExact='true']",
+        "//*[@numFound='" + NUM_DOCS + "']",
+        "//result/doc[1]/str[@name='id'][.='0']");
+
+    // scores are requested
+    assertQ(
+        req("q", "*:*", "sort", "timestamp_i_dvo desc", "rows", "3", "fl", "id,score"),
+        "//*[@numFoundExact='true']",
+        "//*[@numFound='" + NUM_DOCS + "']",
+        "//result/doc[1]/str[@name='id'][.='199']");
+
+    // an explicit minExactCount wins
+    assertQ(
+        req(
+            "q",
+            "*:*",
+            "sort",
+            "timestamp_i_dvo desc",
+            "rows",
+            "3",
+            "minExactCount",
+            Integer.toString(NUM_DOCS + 1),
+            "fl",
+            "id"),
+        "//*[@numFoundExact='true']",
+        "//*[@numFound='" + NUM_DOCS + "']");
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.request.SolrQueryRequest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("filterCache.enabled", "true");
+    System.setProperty("queryResultCache.enabled", "false");
+    System.setProperty("documentCache.enabled", "false");
+    System.setProperty("segmentFilterCache.enabled", "true");
+    initCore("solrconfig-cache-enable-disable.xml", "schema.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("filterCache.enabled");
+    System.clearProperty("queryResultCache.enabled");
+    System.clearProperty("documentCache.enabled");
+    System.clearProperty("segmentFilterCache.enabled");
+  }
+
+  @Test
+  public void testSurvivesCommits() throws Exception {
+    SegmentFilterCache segmentFilterCache = h.getCore().getSegmentFilterCache();
+    assertNotNull(segmentFilterCache);
+
+    clearIndex();
+    for (int i = 0; i < 50; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_i", Integer.toString(i % 7)));
+    }
+    assertU(commit());
+
+    final String[] queries = {"val_i:3", "val_i:[1 TO 4]", "id:1 OR id:40", "val_i:[* TO *]"};
+    Set<IndexReader.CacheKey> prevCoreKeys = assertDocSets(queries);
+
+    // new segment, plus deletions in the old one
+    for (int i = 50; i < 60; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_i", Integer.toString(i % 7)));
+    }
+    assertU(delI("3"));
+    assertU(delQ("val_i:5"));
+    assertU(commit());
+
+    long prevHits = segmentFilterCache.getHits();
+    Set<IndexReader.CacheKey> coreKeys = assertDocSets(queries);
+    coreKeys.retainAll(prevCoreKeys);
+    if (!coreKeys.isEmpty()) {
+      // unless everything was merged, the old segment was not recomputed
+      assertTrue(segmentFilterCache.getHits() > prevHits);
+    }
+  }
+
+  @Test
+  public void testNotCacheablePerSegment() throws Exception {
+    clearIndex();
+    assertU(adoc("id", "1", "val_i", "1"));
+    assertU(adoc("id", "2", "val_i", "2"));
+    assertU(commit());
+
+    SolrQueryRequest req = req();
+    try {
+      SolrIndexSearcher searcher = req.getSearcher();
+      // frange depends on function values that are not segment-cacheable
+      Query q = QParser.getParser("{!frange l=2 cache=true}val_i", req).getQuery();
+      assertNull(h.getCore().getSegmentFilterCache().getDocSet(searcher, q));
+      assertEquals(1, searcher.getDocSet(q).size());
+    } finally {
+      req.close();
+    }
+  }
+
+  @Test
+  public void testGraphFilterAcrossCommits() throws Exception {
+    clearIndex();
+    // 1 -> 2 -> 3, but doc 2 is not there yet
+    assertU(adoc("id", "1", "node_s", "1", "edge_s", "2"));
+    assertU(adoc("id", "3", "node_s", "3"));
+    assertU(commit());
+
+    final String graph = "{!graph from=node_s to=edge_s}id:1";
+    final String nestedGraph = "+id:[* TO *] +_query_:\"" + graph + "\"";
+    assertQ(req("q", "*:*", "fq", graph), "*[count(//doc)=1]");
+
+    // doc 2 in a new segment makes doc 3 of the old segment reachable
+    assertU(adoc("id", "2", "node_s", "2", "edge_s", "3"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", graph), "*[count(//doc)=3]");
+    assertQ(req("q", "*:*", "fq", nestedGraph), "*[count(//doc)=3]");
+
+    SolrQueryRequest req = req();
+    try {
+      SolrIndexSearcher searcher = req.getSearcher();
+      Query q = QParser.getParser(graph, req).getQuery();
+      assertNull(h.getCore().getSegmentFilterCache().getDocSet(searcher, q));
+      // nor when nested in a boolean query
+      q = QParser.getParser(nestedGraph, req).getQuery();
+      assertNull(h.getCore().getSegmentFilterCache().getDocSet(searcher, q));
+    } finally {
+      req.close();
+    }
+  }
+
+  /** Asserts cached and uncached answers agree; returns the core keys of the searcher's leaves. */
+  private Set<IndexReader.CacheKey> assertDocSets(String[] queries) throws Exception {
+    SolrQueryRequest req = req();
+    try {
+      SolrIndexSearcher searcher = req.getSearcher();
+      for (String qstr : queries) {
+        Query q = QParser.getParser(qstr, req).getQuery();
+        DocSet expected = DocSetUtil.createDocSetGeneric(searcher, q);
+        DocSet actual = h.getCore().getSegmentFilterCache().getDocSet(searcher, q);
+        assertNotNull(qstr, actual);
+        assertTrue(qstr, DocSetUtil.equals(expected, actual));
+        assertTrue(qstr, DocSetUtil.equals(expected, searcher.getDocSet(q)));
+      }
+      Set<IndexReader.CacheKey> coreKeys = new HashSet<>();
+      for (LeafReaderContext ctx : searcher.getTopReaderContext().leaves()) {
+        coreKeys.add(ctx.reader().getCoreCacheHelper().getKey());
+      }
+      return coreKeys;
+    } finally {
+      req.close();
+    }
+  }
+}
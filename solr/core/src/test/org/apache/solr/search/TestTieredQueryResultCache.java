@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TotalHits;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+/** Test for {@link TieredQueryResultCache}. */
+public class TestTieredQueryResultCache extends SolrTestCase {
+
+  @Test
+  public void testSpillAndPromote() throws Exception {
+    Path spillDir = createTempDir();
+    TieredQueryResultCache cache = new TieredQueryResultCache();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "10");
+    params.put(TieredQueryResultCache.SPILL_MAX_MB_PARAM, "1");
+    params.put(TieredQueryResultCache.SPILL_DIR_PARAM, spillDir.toString());
+    cache.init(params, null, null);
+    cache.setState(SolrCache.State.LIVE);
+
+    final int numKeys = 100;
+    for (int i = 0; i < numKeys; i++) {
+      cache.put(key(i), docList(i, i % 2 == 0));
+    }
+    assertTrue("nothing was spilled", cache.spillSize() > 0);
+
+    // everything evicted from the heap tier went to the (not full) spill tier
+    for (int i = 0; i < numKeys; i++) {
+      DocList val = cache.get(key(i));
+      assertNotNull("missing " + i, val);
+      assertDocList(i, i % 2 == 0, val);
+    }
+
+    cache.clear();
+    assertEquals(0, cache.spillSize());
+    assertNull(cache.get(key(0)));
+
+    cache.close();
+    try (Stream<Path> files = Files.list(spillDir)) {
+      assertEquals("spill file should be deleted on close", 0, files.count());
+    }
+  }
+
+  @Test
+  public void testSpillDisabledByDefault() throws Exception {
+    TieredQueryResultCache cache = new TieredQueryResultCache();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "2");
+    cache.init(params, null, null);
+    for (int i = 0; i < 20; i++) {
+      cache.put(key(i), docList(i, false));
+    }
+    assertEquals(0, cache.spillSize());
+    cache.close();
+  }
+
+  private static QueryResultKey key(int i) {
+    return new QueryResultKey(new TermQuery(new Term("f", "v" + i)), null, null, 0);
+  }
+
+  private static DocList docList(int i, boolean scores) {
+    int len = i % 7 + 1;
+    int[] docs = new int[len];
+    float[] scoreArr = scores ? new float[len] : null;
+    for (int j = 0; j < len; j++) {
+      docs[j] = i * 10 + j;
+      if (scores) {
+        scoreArr[j] = i + j / 10f;
+      }
+    }
+    return new DocSlice(0, len, docs, scoreArr, i * 3L, i, TotalHits.Relation.EQUAL_TO);
+  }
+
+  private static void assertDocList(int i, boolean scores, DocList val) {
+    DocList expected = docList(i, scores);
+    assertEquals(expected.size(), val.size());
+    assertEquals(expected.matches(), val.matches());
+    assertEquals(expected.hitCountRelation(), val.hitCountRelation());
+    assertEquals(expected.maxScore(), val.maxScore(), 0f);
+    assertEquals(scores, val.hasScores());
+    DocIterator expectedIter = expected.iterator();
+    DocIterator iter = val.iterator();
+    while (expectedIter.hasNext()) {
+      assertTrue(iter.hasNext());
+      assertEquals(expectedIter.nextDoc(), iter.nextDoc());
+      if (scores) {
+        assertEquals(expectedIter.score(), iter.score(), 0f);
+      }
+    }
+    assertFalse(iter.hasNext());
+  }
+}
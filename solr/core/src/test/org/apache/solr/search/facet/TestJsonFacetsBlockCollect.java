@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.Map;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.Utils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Stats over more than {@link SlotAcc#BLOCK_SIZE} docs, collected through {@link
+ * SlotAcc#collect(int[], int, int, java.util.function.IntFunction)}.
+ */
+public class TestJsonFacetsBlockCollect extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    initCore("solrconfig-tlog.xml", "schema_latest.xml");
+  }
+
+  @Test
+  public void testNumericStats() throws Exception {
+    clearIndex();
+    final int numDocs = SlotAcc.BLOCK_SIZE * 2 + random().nextInt(SlotAcc.BLOCK_SIZE);
+    // all values are small integers, so sums are exact whatever the order of the docs
+    Stats all = new Stats();
+    Stats positive = new Stats();
+    for (int i = 0; i < numDocs; i++) {
+      if (random().nextInt(10) == 0) {
+        assertU(adoc("id", Integer.toString(i)));
+      } else {
+        long val = random().nextInt(2000) - 1000;
+        assertU(
+            adoc(
+                "id", Integer.toString(i), "num_ld", Long.toString(val), "num_dd", val + ".0"));
+        all.add(val);
+        if (val >= 0) {
+          positive.add(val);
+        }
+      }
+      if (random().nextInt(300) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    String stats =
+        "sum:'sum(num_dd)', sumsq:'sumsq(num_dd)', avg:'avg(num_dd)',"
+            + " dmin:'min(num_dd)', dmax:'max(num_dd)', lmin:'min(num_ld)', lmax:'max(num_ld)'";
+    Map<?, ?> facets =
+        getFacets(
+            "{" + stats + ", pos:{type:query, q:'num_dd:[0 TO *]', facet:{" + stats + "}}}");
+    all.check(facets);
+    positive.check((Map<?, ?>) facets.get("pos"));
+  }
+
+  private Map<?, ?> getFacets(String facet) throws Exception {
+    String response = JQ(req("q", "*:*", "rows", "0", "json.facet", facet));
+    return (Map<?, ?>) ((Map<?, ?>) Utils.fromJSONString(response)).get("facets");
+  }
+
+  private static class Stats {
+    long count;
+    long sum;
+    long sumsq;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+
+    void add(long val) {
+      count++;
+      sum += val;
+      sumsq += val * val;
+      min = Math.min(min, val);
+      max = Math.max(max, val);
+    }
+
+    void check(Map<?, ?> facets) {
+      assertEquals(facets.toString(), sum, ((Number) facets.get("sum")).doubleValue(), 0);
+      assertEquals(facets.toString(), sumsq, ((Number) facets.get("sumsq")).doubleValue(), 0);
+      assertEquals(
+          facets.toString(),
+          (double) sum / count,
+          ((Number) facets.get("avg")).doubleValue(),
+          0);
+      assertEquals(facets.toString(), min, ((Number) facets.get("dmin")).doubleValue(), 0);
+      assertEquals(facets.toString(), max, ((Number) facets.get("dmax")).doubleValue(), 0);
+      assertEquals(facets.toString(), min, ((Number) facets.get("lmin")).longValue());
+      assertEquals(facets.toString(), max, ((Number) facets.get("lmax")).longValue());
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import static org.apache.solr.search.facet.FacetFieldProcessorByArrayDV.CONCURRENT_SEGMENTS_DEBUG_KEY;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.index.NoMergePolicyFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Multi-threaded (per-segment) counting in {@link FacetFieldProcessorByArrayDV}. */
+public class TestJsonFacetsMultiThreaded extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    // the concurrent path needs more than one segment
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
+    initCore("solrconfig-tlog.xml", "schema_latest.xml");
+  }
+
+  @Test
+  public void testSameCountsAsSingleThreaded() throws Exception {
+    clearIndex();
+    final int numSegments = 2 + random().nextInt(4);
+    int id = 0;
+    for (int seg = 0; seg < numSegments; seg++) {
+      final int numDocs = 1 + random().nextInt(50);
+      for (int i = 0; i < numDocs; i++) {
+        String single = "v" + random().nextInt(20);
+        String multi1 = "m" + random().nextInt(30);
+        String multi2 = "m" + random().nextInt(30);
+        if (random().nextInt(10) == 0) {
+          assertU(adoc("id", Integer.toString(id++)));
+        } else {
+          assertU(
+              adoc(
+                  "id",
+                  Integer.toString(id++),
+                  "cat_sd",
+                  single,
+                  "cat_sds",
+                  multi1,
+                  "cat_sds",
+                  multi2));
+        }
+      }
+      assertU(commit());
+    }
+
+    for (String field : new String[] {"cat_sd", "cat_sds"}) {
+      for (String q : new String[] {"*:*", "id:[0 TO 40]"}) {
+        String facet =
+            "{f:{type:terms, field:" + field + ", method:dv, limit:-1, mincount:1, sort:index}}";
+        Map<?, ?> expected = getFacets(q, facet, false);
+        Map<?, ?> actual = getFacets(q, facet, true);
+        assertEquals(field + " " + q, expected.get("facets"), actual.get("facets"));
+        assertNull(getFacetDebug(expected).get(CONCURRENT_SEGMENTS_DEBUG_KEY));
+        assertEquals(
+            field + " " + q + " was not counted concurrently",
+            (long) numSegments,
+            getFacetDebug(actual).get(CONCURRENT_SEGMENTS_DEBUG_KEY));
+      }
+    }
+  }
+
+  private Map<?, ?> getFacets(String q, String facet, boolean multiThreaded) throws Exception {
+    String response =
+        JQ(
+            req(
+                "q",
+                q,
+                "rows",
+                "0",
+                "json.facet",
+                facet,
+                "debugQuery",
+                "true",
+                CommonParams.MULTI_THREADED,
+                Boolean.toString(multiThreaded)));
+    return (Map<?, ?>) Utils.fromJSONString(response);
+  }
+
+  /** The debug info of the first facet, below the implicit top level query facet. */
+  private static Map<?, ?> getFacetDebug(Map<?, ?> response) {
+    Map<?, ?> trace = (Map<?, ?>) ((Map<?, ?>) response.get("debug")).get("facet-trace");
+    return (Map<?, ?>) ((List<?>) trace.get("sub-facet")).get(0);
+  }
+}
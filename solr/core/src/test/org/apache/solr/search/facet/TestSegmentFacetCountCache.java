@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.Utils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSegmentFacetCountCache extends SolrTestCaseJ4 {
+
+  private static final String FACET =
+      "{f:{type:terms, field:cat_s_dvo, method:dv, limit:-1, mincount:1, sort:index}}";
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("filterCache.enabled", "true");
+    System.setProperty("queryResultCache.enabled", "false");
+    System.setProperty("documentCache.enabled", "false");
+    System.setProperty("segmentFacetCountCache.enabled", "true");
+    initCore("solrconfig-cache-enable-disable.xml", "schema.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("filterCache.enabled");
+    System.clearProperty("queryResultCache.enabled");
+    System.clearProperty("documentCache.enabled");
+    System.clearProperty("segmentFacetCountCache.enabled");
+  }
+
+  @Test
+  public void testSurvivesCommits() throws Exception {
+    SegmentFacetCountCache countCache = h.getCore().getSegmentFacetCountCache();
+    assertNotNull(countCache);
+
+    clearIndex();
+    int id = 0;
+    for (int seg = 0; seg < 3; seg++) {
+      for (int i = 0; i < 20; i++, id++) {
+        assertU(adoc("id", Integer.toString(id), "cat_s_dvo", "c" + (id % 7)));
+      }
+      assertU(commit());
+    }
+
+    final String[] queries = {"*:*", "id:[0 TO 30]", "id:1 OR id:40"};
+    assertSameFacets(queries);
+
+    // new segment, plus deletions in an old one
+    for (int i = 0; i < 10; i++, id++) {
+      assertU(adoc("id", Integer.toString(id), "cat_s_dvo", "c" + (id % 5)));
+    }
+    assertU(delI("3"));
+    assertU(commit());
+
+    final long prevHits = countCache.getHits();
+    assertSameFacets(queries);
+    assertSameFacets(queries);
+    assertTrue(countCache.getHits() > prevHits);
+  }
+
+  @Test
+  public void testNotUsedWithFilters() throws Exception {
+    clearIndex();
+    assertU(adoc("id", "1", "cat_s_dvo", "a"));
+    assertU(adoc("id", "2", "cat_s_dvo", "b"));
+    assertU(commit());
+
+    final long prevLookups = h.getCore().getSegmentFacetCountCache().getLookups();
+    String response = JQ(req("q", "*:*", "fq", "id:1", "rows", "0", "json.facet", FACET));
+    assertEquals(
+        Map.of("count", 1L, "f", Map.of("buckets", List.of(bucket("a", 1)))),
+        ((Map<?, ?>) Utils.fromJSONString(response)).get("facets"));
+    assertEquals(prevLookups, h.getCore().getSegmentFacetCountCache().getLookups());
+  }
+
+  @Test
+  public void testGraphQueryAcrossCommits() throws Exception {
+    clearIndex();
+    // 1 -> 2 -> 3, but doc 2 is not there yet
+    assertU(adoc("id", "1", "node_s", "1", "edge_s", "2", "cat_s_dvo", "a"));
+    assertU(adoc("id", "3", "node_s", "3", "cat_s_dvo", "b"));
+    assertU(commit());
+
+    final String graph = "{!graph from=node_s to=edge_s}id:1";
+    final long prevLookups = h.getCore().getSegmentFacetCountCache().getLookups();
+    assertEquals(
+        Map.of("count", 1L, "f", Map.of("buckets", List.of(bucket("a", 1)))),
+        getFacets(graph, true));
+
+    // doc 2 in a new segment makes doc 3 of the old segment reachable
+    assertU(adoc("id", "2", "node_s", "2", "edge_s", "3", "cat_s_dvo", "a"));
+    assertU(commit());
+    assertEquals(
+        Map.of("count", 3L, "f", Map.of("buckets", List.of(bucket("a", 2), bucket("b", 1)))),
+        getFacets(graph, true));
+    assertEquals(prevLookups, h.getCore().getSegmentFacetCountCache().getLookups());
+  }
+
+  private static Map<String, Object> bucket(String val, long count) {
+    return Map.of("val", val, "count", count);
+  }
+
+  /** Asserts that facets counted through the cache are the same as those counted without. */
+  private void assertSameFacets(String[] queries) throws Exception {
+    for (String q : queries) {
+      Object expected = getFacets(q, false);
+      Object actual = getFacets(q, true);
+      assertEquals(q, expected, actual);
+    }
+  }
+
+  private Object getFacets(String q, boolean cache) throws Exception {
+    String response =
+        JQ(
+            req(
+                "q",
+                q,
+                "rows",
+                "0",
+                "json.facet",
+                FACET,
+                CommonParams.CACHE,
+                Boolean.toString(cache)));
+    return ((Map<?, ?>) Utils.fromJSONString(response)).get("facets");
+  }
+}
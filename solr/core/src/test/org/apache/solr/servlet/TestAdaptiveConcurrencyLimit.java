@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.servlet;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.beans.RateLimiterPayload;
+import org.apache.solr.core.RateLimiterConfig;
+import org.junit.Test;
+
+public class TestAdaptiveConcurrencyLimit extends SolrTestCase {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** Runs the given number of requests concurrently, all completing after the given latency. */
+  private static void runConcurrently(AdaptiveConcurrencyLimit limit, int n, long latencyNanos)
+      throws InterruptedException {
+    int acquired = 0;
+    for (int i = 0; i < n; i++) {
+      if (limit.acquire(-1)) {
+        acquired++;
+      }
+    }
+    for (int i = 0; i < acquired; i++) {
+      limit.release(latencyNanos);
+    }
+  }
+
+  @Test
+  public void testShrinksWhenLatencyRisesAndGrowsBack() throws InterruptedException {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 40);
+    assertEquals(40, limit.getLimit());
+
+    for (int i = 0; i < 20; i++) {
+      runConcurrently(limit, 40, 10 * MS);
+    }
+    assertEquals(40, limit.getLimit());
+
+    for (int i = 0; i < 5; i++) {
+      runConcurrently(limit, 40, 100 * MS);
+    }
+    int shrunk = limit.getLimit();
+    assertTrue("limit should shrink: " + shrunk, shrunk < 40);
+    assertTrue(shrunk >= 2);
+
+    // once the long term latency caught up, requests are no slower than usual
+    for (int i = 0; i < 200; i++) {
+      runConcurrently(limit, 40, 10 * MS);
+    }
+    assertEquals(40, limit.getLimit());
+    assertEquals(0, limit.getInFlight());
+  }
+
+  @Test
+  public void testDoesNotGrowWhenLightlyLoaded() throws InterruptedException {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 40);
+    for (int i = 0; i < 10; i++) {
+      runConcurrently(limit, 40, 10 * MS);
+    }
+    for (int i = 0; i < 5; i++) {
+      runConcurrently(limit, 40, 100 * MS);
+    }
+    int shrunk = limit.getLimit();
+    assertTrue(shrunk > 2 && shrunk < 40);
+    for (int i = 0; i < 100; i++) {
+      runConcurrently(limit, 1, 10 * MS);
+    }
+    assertEquals(shrunk, limit.getLimit());
+  }
+
+  @Test
+  public void testWaitsForReleasedSlot() throws InterruptedException {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1);
+    assertTrue(limit.acquire(-1));
+    assertFalse(limit.acquire(-1));
+    assertFalse(limit.acquire(10));
+    assertFalse(limit.tryBorrow());
+
+    Thread releaser =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              limit.release(MS);
+            });
+    releaser.start();
+    assertTrue(limit.acquire(10_000));
+    releaser.join();
+    assertEquals(1, limit.getInFlight());
+    limit.cancel();
+    assertEquals(0, limit.getInFlight());
+    assertTrue(limit.tryBorrow());
+  }
+
+  @Test
+  public void testBorrowingYieldsToWaitingRequests() throws Exception {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2);
+    assertTrue(limit.acquire(-1));
+    assertTrue(limit.acquire(-1));
+
+    Thread waiter =
+        new Thread(
+            () -> {
+              try {
+                assertTrue(limit.acquire(10_000));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    waiter.start();
+    while (waiter.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+    limit.cancel();
+    // the waiting request takes the released slot, not a borrower
+    assertFalse(limit.tryBorrow());
+    waiter.join();
+    assertEquals(2, limit.getInFlight());
+  }
+
+  @Test
+  public void testRequestRateLimiterReleasesAdaptiveSlots() throws Exception {
+    RateLimiterPayload payload = new RateLimiterPayload();
+    payload.enabled = true;
+    payload.allowedRequests = 4;
+    payload.guaranteedSlots = 2;
+    payload.slotBorrowingEnabled = true;
+    payload.adaptiveLimitEnabled = true;
+    RateLimiterConfig config = new RateLimiterConfig(SolrRequest.SolrRequestType.QUERY, payload);
+    assertTrue(config.isAdaptiveLimitEnabled);
+    assertEquals(1, config.minAllowedRequests);
+
+    RequestRateLimiter limiter = new RequestRateLimiter(config);
+    RequestRateLimiter.SlotReservation nativeReservation = limiter.handleRequest();
+    RequestRateLimiter.SlotReservation borrowed = limiter.allowSlotBorrowing();
+    assertNotNull(nativeReservation);
+    assertNotNull(borrowed);
+    assertFalse(limiter.isEmpty());
+    nativeReservation.close();
+    borrowed.close();
+    assertTrue(limiter.isEmpty());
+  }
+}
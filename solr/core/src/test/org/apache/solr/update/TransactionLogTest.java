@@ -18,12 +18,19 @@
 package org.apache.solr.update;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.lucene.util.Constants;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.update.TransactionLog.LogReader;
 import org.junit.Test;
 
@@ -71,4 +78,146 @@ public class TransactionLogTest extends SolrTestCase {
       assertEquals(uuid, (UUID) doc.getFieldValue("uuid"));
     }
   }
+
+  @Test
+  public void testConcurrentWritesAndSync() throws Exception {
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    final int numThreads = 8;
+    final int docsPerThread = 200;
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(
+            numThreads, new SolrNamedThreadFactory("testConcurrentWritesAndSync"));
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      List<Future<long[]>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        final int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  long[] positions = new long[docsPerThread];
+                  for (int i = 0; i < docsPerThread; i++) {
+                    AddUpdateCommand cmd = new AddUpdateCommand(null);
+                    cmd.solrDoc = new SolrInputDocument();
+                    cmd.solrDoc.addField("id", thread + "_" + i);
+                    // vary the size, some bigger than the scratch buffer
+                    cmd.solrDoc.addField("text", "x".repeat(i % 50 == 0 ? 70_000 : i * 7));
+                    cmd.setVersion(thread * 1000L + i + 1);
+                    positions[i] = tlog.write(cmd);
+                    if (i % 10 == 0) {
+                      tlog.finish(UpdateLog.SyncLevel.FSYNC);
+                    }
+                  }
+                  return positions;
+                }));
+      }
+
+      for (int t = 0; t < numThreads; t++) {
+        long[] positions = futures.get(t).get();
+        for (int i = 0; i < docsPerThread; i++) {
+          List<?> entry = (List<?>) tlog.lookup(positions[i]);
+          assertEquals(t * 1000L + i + 1, entry.get(1));
+          SolrInputDocument doc = (SolrInputDocument) entry.get(2);
+          assertEquals(t + "_" + i, doc.getFieldValue("id"));
+        }
+      }
+      tlog.finish(UpdateLog.SyncLevel.FSYNC);
+      assertEquals(numThreads * docsPerThread + 1, tlog.numRecords()); // plus the header
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
+  @Test
+  public void testMappedReads() throws Exception {
+    assumeFalse("logs are not mapped on Windows", Constants.WINDOWS);
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    final int numDocs = 100;
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      long[] positions = new long[numDocs];
+      for (int i = 0; i < numDocs; i++) {
+        AddUpdateCommand cmd = new AddUpdateCommand(null);
+        cmd.solrDoc = new SolrInputDocument();
+        cmd.solrDoc.addField("id", Integer.toString(i));
+        cmd.solrDoc.addField("text", "x".repeat(i * 200));
+        cmd.setVersion(i + 1);
+        positions[i] = tlog.write(cmd);
+      }
+      CommitUpdateCommand commit = new CommitUpdateCommand(null, false);
+      commit.setVersion(numDocs + 1);
+      tlog.writeCommit(commit);
+
+      assertFalse(tlog.isMapped());
+      tlog.mapReadOnly();
+      assertTrue(tlog.isMapped());
+
+      for (int i = numDocs - 1; i >= 0; i--) {
+        List<?> entry = (List<?>) tlog.lookup(positions[i]);
+        assertEquals(i + 1L, entry.get(UpdateLog.VERSION_IDX));
+        assertEquals(
+            Integer.toString(i), ((SolrInputDocument) entry.get(2)).getFieldValue("id"));
+      }
+
+      LogReader reader = tlog.getReader(0);
+      try {
+        for (int i = 0; i < numDocs; i++) {
+          List<?> entry = (List<?>) reader.next();
+          assertEquals(i + 1L, entry.get(UpdateLog.VERSION_IDX));
+        }
+        List<?> entry = (List<?>) reader.next();
+        assertEquals(UpdateLog.COMMIT, entry.get(UpdateLog.FLAGS_IDX));
+        assertNull(reader.next());
+      } finally {
+        reader.close();
+      }
+
+      TransactionLog.ReverseReader reverseReader = tlog.getReverseReader();
+      try {
+        assertEquals(UpdateLog.COMMIT, ((List<?>) reverseReader.next()).get(UpdateLog.FLAGS_IDX));
+        for (int i = numDocs - 1; i >= 0; i--) {
+          List<?> entry = (List<?>) reverseReader.next();
+          assertEquals(i + 1L, entry.get(UpdateLog.VERSION_IDX));
+          assertEquals(positions[i], reverseReader.position());
+        }
+        assertNull(reverseReader.next());
+      } finally {
+        reverseReader.close();
+      }
+    }
+  }
+
+  @Test
+  public void testClosedLogIsUnmapped() throws Exception {
+    assumeTrue("reads the memory mappings of the process", Constants.LINUX);
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    TransactionLog tlog = new TransactionLog(logFile, null);
+    AddUpdateCommand cmd = new AddUpdateCommand(null);
+    cmd.solrDoc = new SolrInputDocument();
+    cmd.solrDoc.addField("id", "1");
+    cmd.setVersion(1);
+    tlog.write(cmd);
+    CommitUpdateCommand commit = new CommitUpdateCommand(null, false);
+    commit.setVersion(2);
+    tlog.writeCommit(commit);
+    tlog.mapReadOnly();
+    assertTrue(tlog.isMapped());
+    String mappedPath = logFile.toRealPath().toString();
+    assertTrue(isMappedByProcess(mappedPath));
+
+    tlog.decref();
+    assertFalse(tlog.isMapped());
+    assertFalse("the log should be deleted on close", Files.exists(logFile));
+    assertFalse("the deleted log should be unmapped", isMappedByProcess(mappedPath));
+  }
+
+  private static boolean isMappedByProcess(String path) throws IOException {
+    // a deleted file that is still mapped is listed as "<path> (deleted)"
+    return Files.readAllLines(Path.of("/proc/self/maps")).stream()
+        .anyMatch(line -> line.endsWith(path) || line.endsWith(path + " (deleted)"));
+  }
 }
@@ -114,6 +114,9 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
    */
   private List<RegressionTree> trees;
 
+  /** The trees flattened into arrays once validated, to score without chasing node pointers. */
+  private FlatTrees flatTrees;
+
   private boolean isNullSameAsZero = true;
 
   private RegressionTree createRegressionTree(Map<String, Object> map) {
@@ -294,6 +297,7 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     for (RegressionTree tree : trees) {
       tree.validate();
     }
+    flatTrees = FlatTrees.create(trees, isNullSameAsZero);
   }
 
   @Override
@@ -323,6 +327,9 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
 
   @Override
   public float score(float[] modelFeatureValuesNormalized) {
+    if (flatTrees != null) {
+      return flatTrees.score(modelFeatureValuesNormalized);
+    }
     float score = 0;
     for (final RegressionTree t : trees) {
       score += t.score(modelFeatureValuesNormalized);
@@ -330,6 +337,120 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     return score;
   }
 
+  /**
+   * The nodes of all the trees in flat arrays, in depth-first order so that the left child of a
+   * split is the node right after it. Scores are the same, bit for bit, as walking the {@link
+   * RegressionTreeNode}s: the same comparisons are made and the tree scores are summed in the same
+   * order.
+   */
+  private static final class FlatTrees {
+    /** Marks a leaf in {@link #featureIndex}; the value of the leaf is in {@link #threshold}. */
+    private static final int LEAF = -2;
+
+    private final float[] weights;
+    private final int[] roots;
+    private final int[] featureIndex;
+    private final float[] threshold;
+    private final int[] right;
+    private final boolean[] missingLeft;
+    private final boolean isNullSameAsZero;
+
+    private FlatTrees(List<RegressionTree> trees, int numNodes, boolean isNullSameAsZero) {
+      this.weights = new float[trees.size()];
+      this.roots = new int[trees.size()];
+      this.featureIndex = new int[numNodes];
+      this.threshold = new float[numNodes];
+      this.right = new int[numNodes];
+      this.missingLeft = new boolean[numNodes];
+      this.isNullSameAsZero = isNullSameAsZero;
+    }
+
+    /**
+     * Flattens the validated trees, or returns null if they can't be: when nulls are supported, a
+     * split without a missing direction is left to fail as it does when walking the nodes.
+     */
+    static FlatTrees create(List<RegressionTree> trees, boolean isNullSameAsZero) {
+      int numNodes = 0;
+      final Deque<RegressionTreeNode> stack = new ArrayDeque<>();
+      for (RegressionTree tree : trees) {
+        stack.push(tree.root);
+        while (!stack.isEmpty()) {
+          final RegressionTreeNode node = stack.pop();
+          numNodes++;
+          if (!node.isLeaf()) {
+            if (!isNullSameAsZero && node.missing == null) {
+              return null;
+            }
+            stack.push(node.right);
+            stack.push(node.left);
+          }
+        }
+      }
+
+      final FlatTrees flatTrees = new FlatTrees(trees, numNodes, isNullSameAsZero);
+      // a right child is pushed along with the position of its parent, to link it once placed
+      final Deque<Integer> parents = new ArrayDeque<>();
+      int pos = 0;
+      for (int t = 0; t < trees.size(); t++) {
+        flatTrees.weights[t] = trees.get(t).weight;
+        flatTrees.roots[t] = pos;
+        stack.push(trees.get(t).root);
+        parents.push(-1);
+        while (!stack.isEmpty()) {
+          final RegressionTreeNode node = stack.pop();
+          final int parent = parents.pop();
+          if (parent >= 0) {
+            flatTrees.right[parent] = pos;
+          }
+          if (node.isLeaf()) {
+            flatTrees.featureIndex[pos] = LEAF;
+            flatTrees.threshold[pos] = node.value;
+          } else {
+            flatTrees.featureIndex[pos] = node.featureIndex;
+            flatTrees.threshold[pos] = node.threshold;
+            flatTrees.missingLeft[pos] = "left".equals(node.missing);
+            stack.push(node.right);
+            parents.push(pos);
+            stack.push(node.left);
+            parents.push(-1);
+          }
+          pos++;
+        }
+      }
+      return flatTrees;
+    }
+
+    float score(float[] featureVector) {
+      float score = 0;
+      for (int t = 0; t < roots.length; t++) {
+        score += weights[t] * scoreTree(featureVector, roots[t]);
+      }
+      return score;
+    }
+
+    private float scoreTree(float[] featureVector, int node) {
+      while (true) {
+        final int f = featureIndex[node];
+        if (f == LEAF) {
+          return threshold[node];
+        }
+        // unsupported feature (tree is looking for a feature that does not exist)
+        if (f < 0 || f >= featureVector.length) {
+          return 0f;
+        }
+        final float value = featureVector[f];
+        if (value <= threshold[node]) {
+          node++;
+        } else if (isNullSameAsZero || value > threshold[node]) {
+          node = right[node];
+        } else {
+          // NaN
+          node = missingLeft[node] ? node + 1 : right[node];
+        }
+      }
+    }
+  }
+
   private static float scoreNode(float[] featureVector, RegressionTreeNode regressionTreeNode) {
     while (true) {
       if (regressionTreeNode.isLeaf()) {
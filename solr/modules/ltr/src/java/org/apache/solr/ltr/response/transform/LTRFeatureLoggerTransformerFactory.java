@@ -17,6 +17,8 @@
 package org.apache.solr.ltr.response.transform;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -46,6 +48,8 @@ import org.apache.solr.response.ResultContext;
 import org.apache.solr.response.transform.DocTransformer;
 import org.apache.solr.response.transform.TransformerFactory;
 import org.apache.solr.search.DocIterationInfo;
+import org.apache.solr.search.DocIterator;
+import org.apache.solr.search.DocList;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.SolrPluginUtils;
 
@@ -184,6 +188,9 @@ public class LTRFeatureLoggerTransformerFactory extends TransformerFactory {
     private boolean docsWereReranked;
     private boolean docsHaveScores;
 
+    /** The feature vectors of the documents of the result, by doc id, extracted up front. */
+    private Map<Integer, String> featureVectors;
+
     /**
      * @param name Name of the field to be added in a document representing the feature vectors
      */
@@ -259,6 +266,11 @@ public class LTRFeatureLoggerTransformerFactory extends TransformerFactory {
       setupRerankingQueriesForLogging(
           transformerFeatureStore, transformerExternalFeatureInfo, loggingModel);
       setupRerankingWeightsForLogging(context, featureLogger);
+      try {
+        featureVectors = extractFeatureVectors(context.getDocList());
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e.getMessage(), e);
+      }
     }
 
     /**
@@ -406,19 +418,78 @@ public class LTRFeatureLoggerTransformerFactory extends TransformerFactory {
       implTransform(doc, docid, docInfo);
     }
 
+    /**
+     * Extracts the feature vectors of all the documents of the result at once. The documents are
+     * visited in doc id order, so that a single scorer per segment (and reranking query) advances
+     * through them, instead of a scorer being created for each document.
+     */
+    private Map<Integer, String> extractFeatureVectors(DocList docList) throws IOException {
+      if (docList == null || docList.size() == 0) {
+        return null;
+      }
+      final boolean useScores = !docsWereReranked && docsHaveScores;
+      final int size = docList.size();
+      final int[] docs = new int[size];
+      final float[] scores = new float[size];
+      final Integer[] order = new Integer[size];
+      final DocIterator iterator = docList.iterator();
+      for (int i = 0; i < size; i++) {
+        docs[i] = iterator.nextDoc();
+        if (useScores) {
+          scores[i] = iterator.score();
+        }
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Integer.compare(docs[a], docs[b]));
+
+      final Map<Integer, String> vectors = new HashMap<>((int) (size / 0.75f) + 1);
+      final LTRScoringQuery.ModelWeight.ModelScorer[] scorers =
+          new LTRScoringQuery.ModelWeight.ModelScorer[modelWeights.length];
+      LeafReaderContext leaf = null;
+      for (int i : order) {
+        final int docid = docs[i];
+        final int weightIndex = rerankingQueryIndex(docid);
+        if (!isLogged(weightIndex)) {
+          continue;
+        }
+        if (leaf == null || docid >= leaf.docBase + leaf.reader().maxDoc()) {
+          leaf = leafContexts.get(ReaderUtil.subIndex(docid, leafContexts));
+          Arrays.fill(scorers, null);
+        }
+        if (scorers[weightIndex] == null) {
+          scorers[weightIndex] = modelWeights[weightIndex].modelScorer(leaf);
+        }
+        final LTRScoringQuery.FeatureInfo[] featuresInfo =
+            extractFeatures(
+                featureLogger,
+                modelWeights[weightIndex],
+                scorers[weightIndex],
+                docid,
+                docid - leaf.docBase,
+                useScores ? scores[i] : null);
+        vectors.put(docid, featureLogger.printFeatureVector(featuresInfo));
+      }
+      return vectors;
+    }
+
+    /**
+     * Extracts the features of a document with a scorer of its segment, which must not be
+     * positioned past the document.
+     */
     private static LTRScoringQuery.FeatureInfo[] extractFeatures(
         FeatureLogger logger,
         LTRScoringQuery.ModelWeight modelWeight,
+        LTRScoringQuery.ModelWeight.ModelScorer r,
         int docid,
-        Float originalDocScore,
-        List<LeafReaderContext> leafContexts)
+        int deBasedDoc,
+        Float originalDocScore)
         throws IOException {
-      final int n = ReaderUtil.subIndex(docid, leafContexts);
-      final LeafReaderContext atomicContext = leafContexts.get(n);
-      final int deBasedDoc = docid - atomicContext.docBase;
-      final LTRScoringQuery.ModelWeight.ModelScorer r = modelWeight.modelScorer(atomicContext);
       r.getDocInfo().setOriginalDocId(docid);
-      if ((r == null) || (r.iterator().advance(deBasedDoc) != deBasedDoc)) {
+      int currentDoc = r.iterator().docID();
+      if (currentDoc < deBasedDoc) {
+        currentDoc = r.iterator().advance(deBasedDoc);
+      }
+      if (currentDoc != deBasedDoc) {
         return new LTRScoringQuery.FeatureInfo[0];
       } else {
         if (originalDocScore != null) {
@@ -432,29 +503,46 @@ public class LTRFeatureLoggerTransformerFactory extends TransformerFactory {
       }
     }
 
-    private void implTransform(SolrDocument doc, int docid, DocIterationInfo docInfo)
-        throws IOException {
-      LTRScoringQuery rerankingQuery = rerankingQueries[0];
-      LTRScoringQuery.ModelWeight rerankingModelWeight = modelWeights[0];
+    /** The index of the reranking query that ranked the document. */
+    private int rerankingQueryIndex(int docid) {
+      int index = 0;
       for (int i = 1; i < rerankingQueries.length; i++) {
         if (((LTRInterleavingScoringQuery) rerankingQueriesFromContext[i])
             .getPickedInterleavingDocIds()
             .contains(docid)) {
-          rerankingQuery = rerankingQueries[i];
-          rerankingModelWeight = modelWeights[i];
+          index = i;
         }
       }
-      if (!(rerankingQuery instanceof OriginalRankingLTRScoringQuery) || hasExplicitFeatureStore) {
-        LTRScoringQuery.FeatureInfo[] featuresInfo =
+      return index;
+    }
+
+    private boolean isLogged(int rerankingQueryIndex) {
+      return !(rerankingQueries[rerankingQueryIndex] instanceof OriginalRankingLTRScoringQuery)
+          || hasExplicitFeatureStore;
+    }
+
+    private void implTransform(SolrDocument doc, int docid, DocIterationInfo docInfo)
+        throws IOException {
+      final int weightIndex = rerankingQueryIndex(docid);
+      if (!isLogged(weightIndex)) {
+        return;
+      }
+      String featureVector = (featureVectors == null) ? null : featureVectors.get(docid);
+      if (featureVector == null) {
+        // the document is not part of the result's doc list, extract its features on its own
+        final LeafReaderContext atomicContext =
+            leafContexts.get(ReaderUtil.subIndex(docid, leafContexts));
+        final LTRScoringQuery.FeatureInfo[] featuresInfo =
             extractFeatures(
                 featureLogger,
-                rerankingModelWeight,
+                modelWeights[weightIndex],
+                modelWeights[weightIndex].modelScorer(atomicContext),
                 docid,
-                (!docsWereReranked && docsHaveScores) ? docInfo.score() : null,
-                leafContexts);
-        String featureVector = featureLogger.printFeatureVector(featuresInfo);
-        doc.addField(name, featureVector);
+                docid - atomicContext.docBase,
+                (!docsWereReranked && docsHaveScores) ? docInfo.score() : null);
+        featureVector = featureLogger.printFeatureVector(featuresInfo);
       }
+      doc.addField(name, featureVector);
     }
   }
 
@@ -18,8 +18,17 @@ package org.apache.solr.ltr.model;
 
 import static org.hamcrest.core.StringContains.containsString;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.search.Explanation;
 import org.apache.solr.client.solrj.request.SolrQuery;
 import org.apache.solr.ltr.TestRerankBase;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.norm.IdentityNormalizer;
+import org.apache.solr.ltr.norm.Normalizer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -354,4 +363,63 @@ public class TestMultipleAdditiveTreesModel extends TestRerankBase {
     assertThat(qryResult, containsString(" Go Right "));
     assertThat(qryResult, containsString(" Go Left "));
   }
+
+  @Test
+  public void testFlatTreesScoreLikeNodes() throws Exception {
+    final List<Feature> features = getFeatures(new String[] {"f0", "f1", "f2", "f3"});
+    final List<Normalizer> norms =
+        new ArrayList<>(Collections.nCopies(features.size(), IdentityNormalizer.INSTANCE));
+    final boolean isNullSameAsZero = random().nextBoolean();
+
+    final List<Object> trees = new ArrayList<>();
+    for (int t = 0; t < 1 + random().nextInt(20); t++) {
+      trees.add(Map.of("weight", Float.toString(random().nextFloat()), "root", randomNode(0)));
+    }
+    final Map<String, Object> params = new HashMap<>();
+    params.put("trees", trees);
+    params.put("isNullSameAsZero", isNullSameAsZero);
+    final LTRScoringModel model =
+        LTRScoringModel.getInstance(
+            solrResourceLoader,
+            MultipleAdditiveTreesModel.class.getName(),
+            "flat",
+            features,
+            norms,
+            "test",
+            features,
+            params);
+
+    for (int i = 0; i < 100; i++) {
+      final float[] featureVector = new float[features.size()];
+      final List<Explanation> featureExplanations = new ArrayList<>();
+      for (int f = 0; f < featureVector.length; f++) {
+        featureVector[f] =
+            !isNullSameAsZero && random().nextInt(5) == 0 ? Float.NaN : random().nextFloat();
+        featureExplanations.add(Explanation.match(featureVector[f], "f" + f));
+      }
+      // the explanation walks the tree nodes
+      float expected = 0;
+      for (Explanation tree :
+          model.explain(null, 0, 0f, featureExplanations).getDetails()) {
+        expected += tree.getValue().floatValue();
+      }
+      assertEquals(
+          Float.floatToIntBits(expected), Float.floatToIntBits(model.score(featureVector)));
+    }
+  }
+
+  private static Map<String, Object> randomNode(int depth) {
+    final Map<String, Object> node = new HashMap<>();
+    if (depth > 6 || random().nextInt(4) == 0) {
+      node.put("value", Float.toString(random().nextFloat() * 100 - 50));
+      return node;
+    }
+    // sometimes a feature the model does not have
+    node.put("feature", random().nextInt(10) == 0 ? "unknown" : "f" + random().nextInt(4));
+    node.put("threshold", Float.toString(random().nextFloat()));
+    node.put("missing", random().nextBoolean() ? "left" : "right");
+    node.put("left", randomNode(depth + 1));
+    node.put("right", randomNode(depth + 1));
+    return node;
+  }
 }
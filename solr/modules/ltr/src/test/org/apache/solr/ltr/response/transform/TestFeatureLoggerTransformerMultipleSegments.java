@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.response.transform;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.TotalHits;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.ltr.TestRerankBase;
+import org.apache.solr.ltr.feature.FieldValueFeature;
+import org.apache.solr.ltr.feature.OriginalScoreFeature;
+import org.apache.solr.ltr.feature.SolrFeature;
+import org.apache.solr.ltr.interleaving.algorithms.TeamDraftInterleaving;
+import org.apache.solr.ltr.model.LinearModel;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequestBase;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.BasicResultContext;
+import org.apache.solr.response.ResultContext;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.response.transform.DocTransformer;
+import org.apache.solr.search.DocIterator;
+import org.apache.solr.search.DocList;
+import org.apache.solr.search.DocSlice;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that the feature vectors the transformer extracts for all the documents of the result at
+ * once, segment by segment, are the ones it extracts for each document on its own, which it does
+ * for documents that are not part of the result's doc list.
+ */
+public class TestFeatureLoggerTransformerMultipleSegments extends TestRerankBase {
+
+  private static final int NUM_SEGMENTS = 4;
+  private static final int DOCS_PER_SEGMENT = 15;
+
+  @BeforeClass
+  public static void before() throws Exception {
+    setuptest(false);
+
+    int id = 0;
+    for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+      for (int i = 0; i < DOCS_PER_SEGMENT; i++, id++) {
+        assertU(
+            adoc(
+                "id",
+                Integer.toString(id),
+                "title",
+                randomWords(),
+                "description",
+                randomWords(),
+                "popularity",
+                Integer.toString(random().nextInt(100))));
+      }
+      assertU(commit());
+    }
+
+    loadFeature(
+        "titleMatch", SolrFeature.class.getName(), "{\"fq\":[\"{!terms f=title}${user_query}\"]}");
+    loadFeature(
+        "descriptionScore",
+        SolrFeature.class.getName(),
+        "{\"q\":\"{!field f=description}${user_query}\"}");
+    loadFeature("popularity", FieldValueFeature.class.getName(), "{\"field\":\"popularity\"}");
+    loadFeature("originalScore", OriginalScoreFeature.class.getName(), "{}");
+
+    loadModel(
+        "modelA",
+        LinearModel.class.getName(),
+        new String[] {"titleMatch", "popularity", "originalScore"},
+        "{\"weights\":{\"titleMatch\":1.0, \"popularity\":0.1, \"originalScore\":0.5}}");
+    loadModel(
+        "modelB",
+        LinearModel.class.getName(),
+        new String[] {"descriptionScore", "popularity", "originalScore"},
+        "{\"weights\":{\"descriptionScore\":2.0, \"popularity\":-0.1, \"originalScore\":1.0}}");
+  }
+
+  @AfterClass
+  public static void after() throws Exception {
+    aftertest();
+  }
+
+  /** A few words out of a small vocabulary, so that documents share terms. */
+  private static String randomWords() {
+    final StringBuilder words = new StringBuilder("w" + (1 + random().nextInt(6)));
+    for (int i = random().nextInt(4); i > 0; i--) {
+      words.append(" w").append(1 + random().nextInt(6));
+    }
+    return words.toString();
+  }
+
+  @Test
+  public void testWithoutReranking() throws Exception {
+    assertSameFeatureVectors(null);
+  }
+
+  @Test
+  public void testWithReranking() throws Exception {
+    // fewer reranked documents than rows, so that the result has documents of both kinds
+    assertSameFeatureVectors("{!ltr model=modelA reRankDocs=10 efi.user_query=w2}");
+  }
+
+  @Test
+  public void testWithInterleaving() throws Exception {
+    TeamDraftInterleaving.setRANDOM(new Random(random().nextLong()));
+    assertSameFeatureVectors("{!ltr model=modelA model=modelB reRankDocs=20 efi.user_query=w2}");
+  }
+
+  /**
+   * Runs the query, then logs the features of its documents with all of them, none of them and
+   * some of them in the doc list the transformer is given, and checks that the logged feature
+   * vectors are the same each time.
+   */
+  private void assertSameFeatureVectors(String rq) throws Exception {
+    final ModifiableSolrParams params =
+        params(
+            "q",
+            "title:(w1 w2 w3) description:(w1 w4)",
+            "rows",
+            Integer.toString(NUM_SEGMENTS * DOCS_PER_SEGMENT),
+            "fl",
+            "id,score,fv:[fv efi.user_query=w2]");
+    if (rq != null) {
+      params.set("rq", rq);
+    }
+    try (SolrCore core = solrTestRule.getCoreContainer().getCore(DEFAULT_TEST_CORENAME);
+        SolrQueryRequestBase req = new SolrQueryRequestBase(core, params)) {
+      final SolrQueryResponse rsp = new SolrQueryResponse();
+      SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+      try {
+        core.execute(core.getRequestHandler("/query"), req, rsp);
+        assertNull(rsp.getException());
+        final ResultContext context = (ResultContext) rsp.getResponse();
+        final DocList docList = context.getDocList();
+        final int[] docs = new int[docList.size()];
+        final float[] scores = docList.hasScores() ? new float[docList.size()] : null;
+        final DocIterator iterator = docList.iterator();
+        for (int i = 0; i < docs.length; i++) {
+          docs[i] = iterator.nextDoc();
+          if (scores != null) {
+            scores[i] = iterator.score();
+          }
+        }
+        final List<LeafReaderContext> leaves =
+            context.getSearcher().getTopReaderContext().leaves();
+        assertTrue(
+            "the documents should be spread over several segments",
+            Arrays.stream(docs).map(docid -> ReaderUtil.subIndex(docid, leaves)).distinct().count()
+                > 1);
+
+        final boolean[] inDocList = new boolean[docs.length];
+        final Map<Integer, Object> expected = logFeatureVectors(context, docs, scores, inDocList);
+        assertEquals(docs.length, expected.size());
+        Arrays.fill(inDocList, true);
+        assertEquals(expected, logFeatureVectors(context, docs, scores, inDocList));
+        for (int i = 0; i < inDocList.length; i++) {
+          inDocList[i] = random().nextBoolean();
+        }
+        assertEquals(expected, logFeatureVectors(context, docs, scores, inDocList));
+      } finally {
+        SolrRequestInfo.clearRequestInfo();
+      }
+    }
+  }
+
+  /**
+   * The feature vectors logged for the documents of the result, by document, when only the
+   * documents flagged in {@code inDocList} are part of the doc list the transformer is given.
+   */
+  private static Map<Integer, Object> logFeatureVectors(
+      ResultContext context, int[] docs, float[] scores, boolean[] inDocList) throws Exception {
+    int size = 0;
+    final int[] listDocs = new int[docs.length];
+    final float[] listScores = scores == null ? null : new float[docs.length];
+    for (int i = 0; i < docs.length; i++) {
+      if (inDocList[i]) {
+        listDocs[size] = docs[i];
+        if (scores != null) {
+          listScores[size] = scores[i];
+        }
+        size++;
+      }
+    }
+    final DocList docList =
+        new DocSlice(
+            0,
+            size,
+            listDocs,
+            listScores,
+            size,
+            context.getDocList().maxScore(),
+            TotalHits.Relation.EQUAL_TO);
+    final SolrQueryRequest req = context.getRequest();
+    final DocTransformer transformer = context.getReturnFields().getTransformer();
+    transformer.setContext(
+        new BasicResultContext(
+            docList, context.getReturnFields(), context.getSearcher(), context.getQuery(), req));
+
+    final Map<Integer, Object> featureVectors = new HashMap<>();
+    for (int i = 0; i < docs.length; i++) {
+      final float score = scores == null ? 0f : scores[i];
+      final SolrDocument doc = new SolrDocument();
+      transformer.transform(doc, docs[i], () -> score);
+      featureVectors.put(docs[i], doc.getFieldValue("fv"));
+    }
+    return featureVectors;
+  }
+}
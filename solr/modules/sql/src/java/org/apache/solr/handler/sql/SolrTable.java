@@ -22,6 +22,7 @@ import static org.apache.solr.common.params.CommonParams.SORT;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -644,6 +645,11 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
     return bucketsArray;
   }
 
+  /** The sort of a level of buckets: a single sort applies to every level, like in FacetStream. */
+  private static FieldComparator getLevelSort(FieldComparator[] sorts, int levels, int level) {
+    return sorts.length == levels ? sorts[level] : sorts[0];
+  }
+
   private TupleStream handleGroupByFacet(
       CloudSolrClient.CloudSolrClientConnection solrConnection,
       String collection,
@@ -693,8 +699,48 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
 
     int overfetch = (int) (limit * 1.25);
 
+    boolean metricSort = false;
+    for (FieldComparator sort : sorts) {
+      metricSort |= sort.getLeftFieldName().contains("(");
+    }
+
+    int[] bucketSizeLimits = new int[buckets.length];
+    Arrays.fill(bucketSizeLimits, -1);
+    // the HAVING predicate is applied to the buckets on the way out, so they must all be fetched
+    if (havingPredicate == null) {
+      // The rows are ordered by the sorts of the levels in turn. A level sorted by a metric is
+      // sorted by its own total, which does not order the rows below it, so a level can only be
+      // limited if the levels above it are sorted by bucket value; and the innermost level by a
+      // metric if the levels above are sorted by bucket value or by the same metric.
+      FieldComparator innermostSort = getLevelSort(sorts, buckets.length, buckets.length - 1);
+      boolean aboveByValue = true;
+      boolean aboveByValueOrInnermostSort = true;
+      for (int level = 0; level < buckets.length; level++) {
+        FieldComparator sort = getLevelSort(sorts, buckets.length, level);
+        boolean byMetric = sort.getLeftFieldName().contains("(");
+        boolean innermost = level == buckets.length - 1;
+        if (byMetric ? innermost && aboveByValueOrInnermostSort : aboveByValue) {
+          bucketSizeLimits[level] = overfetch;
+        }
+        aboveByValue &= !byMetric;
+        aboveByValueOrInnermostSort &=
+            !byMetric
+                || (sort.getLeftFieldName().equals(innermostSort.getLeftFieldName())
+                    && sort.getOrder() == innermostSort.getOrder());
+      }
+    }
+
+    // top buckets by a metric must be refined to get their exact values over all the shards
     TupleStream tupleStream =
-        new FacetStream(solrConnection, collection, solrParams, buckets, metrics, sorts, overfetch);
+        new FacetStream(
+            solrConnection,
+            collection,
+            solrParams,
+            buckets,
+            metrics,
+            sorts,
+            bucketSizeLimits,
+            metricSort);
 
     StreamFactory factory =
         new StreamFactory()
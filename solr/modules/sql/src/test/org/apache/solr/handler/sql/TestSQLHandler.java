@@ -3287,6 +3287,45 @@ public class TestSQLHandler extends SolrCloudTestCase {
         1);
   }
 
+  @Test
+  public void testGroupByFacetLimits() throws Exception {
+    new UpdateRequest()
+        .add("id", "1", "a_s", "x", "b_s", "p", "a_i", "5")
+        .add("id", "2", "a_s", "x", "b_s", "q", "a_i", "5")
+        .add("id", "3", "a_s", "x", "b_s", "r", "a_i", "5")
+        .add("id", "4", "a_s", "y", "b_s", "p", "a_i", "10")
+        .commit(cluster.getSolrClient(), COLLECTIONORALIAS);
+
+    // the top pair is not under the top outer bucket, which has the highest total
+    List<Tuple> tuples =
+        expectResults(
+            "SELECT a_s, b_s, SUM(a_i) AS total FROM $ALIAS GROUP BY a_s, b_s "
+                + "ORDER BY SUM(a_i) DESC LIMIT 1",
+            1);
+    assertEquals("y", tuples.get(0).getString("a_s"));
+    assertEquals("p", tuples.get(0).getString("b_s"));
+    assertEquals(10, tuples.get(0).getDouble("total"), 0.0);
+
+    // the same with a sort for each level: the outer one is still sorted by its own total
+    tuples =
+        expectResults(
+            "SELECT a_s, b_s, SUM(a_i) AS total FROM $ALIAS GROUP BY a_s, b_s "
+                + "ORDER BY SUM(a_i) DESC, b_s ASC LIMIT 1",
+            1);
+    assertEquals("y", tuples.get(0).getString("a_s"));
+    assertEquals("p", tuples.get(0).getString("b_s"));
+    assertEquals(10, tuples.get(0).getDouble("total"), 0.0);
+
+    // the HAVING predicate filters out the first bucket
+    tuples =
+        expectResults(
+            "SELECT a_s, SUM(a_i) AS total FROM $ALIAS GROUP BY a_s HAVING SUM(a_i) < 12 "
+                + "ORDER BY a_s ASC LIMIT 1",
+            1);
+    assertEquals("y", tuples.get(0).getString("a_s"));
+    assertEquals(10, tuples.get(0).getDouble("total"), 0.0);
+  }
+
   @Test
   public void testCustomUDFArrayContains() throws Exception {
     new UpdateRequest()
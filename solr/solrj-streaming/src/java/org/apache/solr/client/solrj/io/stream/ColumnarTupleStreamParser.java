@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the javabin response of an {@code /export} request sent with {@code
+ * exportFormat=columnar}, returning one map per document like {@link JavabinTupleStreamParser}.
+ *
+ * <p>In that format every item of {@code docs} is a record batch holding the documents of one
+ * export buffer column by column:
+ *
+ * <pre>
+ * {"rows": 30000,
+ *  "columns": {
+ *    "id": {"values": ["1", "2", ...]},
+ *    "intdv": {"values": int[], "present": long[]}}}
+ * </pre>
+ *
+ * Values of single-valued numeric and boolean fields are sent as primitive arrays. {@code present}
+ * is a bitset (bit {@code i % 64} of word {@code i / 64}) of the rows having a value, and is left
+ * out when all rows have one. Other fields are sent as a list with {@code null} for missing values.
+ * Items that aren't batches, such as an exception, are returned as is.
+ */
+public class ColumnarTupleStreamParser extends JavabinTupleStreamParser {
+  public static final String ROWS = "rows";
+  public static final String COLUMNS = "columns";
+  public static final String VALUES = "values";
+  public static final String PRESENT = "present";
+
+  private static final String[] NO_COLUMNS = new String[0];
+
+  private final boolean onlyJsonTypes;
+  private String[] names = NO_COLUMNS;
+  private Object[] values;
+  private long[][] present;
+  private int rows;
+  private int row;
+
+  public ColumnarTupleStreamParser(InputStream is, boolean onlyJsonTypes) throws IOException {
+    super(is, onlyJsonTypes);
+    this.onlyJsonTypes = onlyJsonTypes;
+  }
+
+  @Override
+  public Map<String, Object> next() throws IOException {
+    while (row == rows) {
+      Map<String, Object> batch = super.next();
+      if (batch == null) {
+        return null;
+      }
+      if (!batch.containsKey(COLUMNS)) {
+        return batch;
+      }
+      readBatch(batch);
+    }
+
+    Map<String, Object> doc = new LinkedHashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      long[] bits = present[i];
+      if (bits != null && (bits[row >> 6] & (1L << row)) == 0) {
+        continue;
+      }
+      Object value = value(values[i], row);
+      if (value != null) {
+        doc.put(names[i], value);
+      }
+    }
+    row++;
+    return doc;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readBatch(Map<String, Object> batch) {
+    Map<Object, Object> columns = (Map<Object, Object>) batch.get(COLUMNS);
+    names = new String[columns.size()];
+    values = new Object[columns.size()];
+    present = new long[columns.size()][];
+    int i = 0;
+    for (Map.Entry<Object, Object> e : columns.entrySet()) {
+      Map<Object, Object> column = (Map<Object, Object>) e.getValue();
+      names[i] = e.getKey().toString();
+      values[i] = column.get(VALUES);
+      present[i] = (long[]) column.get(PRESENT);
+      i++;
+    }
+    rows = ((Number) batch.get(ROWS)).intValue();
+    row = 0;
+  }
+
+  private Object value(Object column, int row) {
+    if (column instanceof int[] ints) {
+      return onlyJsonTypes ? (Object) (long) ints[row] : (Object) ints[row];
+    } else if (column instanceof long[] longs) {
+      return longs[row];
+    } else if (column instanceof float[] floats) {
+      return onlyJsonTypes ? (Object) (double) floats[row] : (Object) floats[row];
+    } else if (column instanceof double[] doubles) {
+      return doubles[row];
+    } else if (column instanceof boolean[] booleans) {
+      return booleans[row];
+    } else if (column instanceof List<?> list) {
+      return list.get(row);
+    } else {
+      throw new IllegalStateException("Unexpected column type: " + column);
+    }
+  }
+}
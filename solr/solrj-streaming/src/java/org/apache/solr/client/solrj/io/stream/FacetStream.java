@@ -77,6 +77,8 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
   private int offset;
   private int overfetch;
   private int bucketSizeLimit;
+  // the bucket size limit of each bucket level, if they differ
+  private int[] levelBucketSizeLimits;
   private boolean refine;
   private String method;
   private FieldComparator[] bucketSorts;
@@ -122,6 +124,49 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
         0);
   }
 
+  /**
+   * Creates a facet stream with a bucket size limit for each level of buckets, -1 meaning no
+   * limit, for instance to only limit the innermost level of buckets sorted by a metric. No more
+   * tuples are read than the smallest of the limits.
+   *
+   * @param refine whether the buckets of a distributed request are refined
+   */
+  public FacetStream(
+      CloudSolrClient.CloudSolrClientConnection solrConnection,
+      String collection,
+      SolrParams params,
+      Bucket[] buckets,
+      Metric[] metrics,
+      FieldComparator[] bucketSorts,
+      int[] bucketSizeLimits,
+      boolean refine)
+      throws IOException {
+    if (bucketSizeLimits.length != buckets.length) {
+      throw new IOException("There must be a bucket size limit for each bucket.");
+    }
+    int[] levelLimits = new int[bucketSizeLimits.length];
+    int minLimit = Integer.MAX_VALUE;
+    for (int i = 0; i < levelLimits.length; i++) {
+      levelLimits[i] = bucketSizeLimits[i] == -1 ? Integer.MAX_VALUE : bucketSizeLimits[i];
+      minLimit = Math.min(minLimit, levelLimits[i]);
+    }
+    init(
+        solrConnection,
+        collection,
+        params,
+        buckets,
+        bucketSorts,
+        metrics,
+        minLimit,
+        0,
+        minLimit,
+        refine,
+        null,
+        true,
+        0);
+    this.levelBucketSizeLimits = levelLimits;
+  }
+
   public FacetStream(StreamExpression expression, StreamFactory factory) throws IOException {
     // grab all parameters out
     String collectionName = factory.getValueOperand(expression, 0);
@@ -318,27 +363,43 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
       }
     }
 
+    int[] levelBucketLimits = null;
     if (bucketLimitExpression != null) {
       String bucketLimitStr =
           ((StreamExpressionValue) bucketLimitExpression.getParameter()).getValue();
       try {
-        bucketLimit = Integer.parseInt(bucketLimitStr);
-        bucketLimitSet = true;
-
-        if (bucketLimit <= 0 && bucketLimit != -1) {
+        // either a single limit for all the levels of buckets, or a limit for each level
+        String[] levelLimitStrs = bucketLimitStr.split(",");
+        if (levelLimitStrs.length > 1 && levelLimitStrs.length != buckets.length) {
           throw new IOException(
               String.format(
                   Locale.ROOT,
-                  "invalid expression %s - bucketSizeLimit '%s' must be greater than 0 or -1.",
+                  "invalid expression %s - bucketSizeLimit '%s' must have a single limit or a limit for each bucket.",
                   expression,
                   bucketLimitStr));
         }
+        int[] levelLimits = new int[levelLimitStrs.length];
+        for (int i = 0; i < levelLimits.length; i++) {
+          levelLimits[i] = Integer.parseInt(levelLimitStrs[i].trim());
+          if (levelLimits[i] <= 0 && levelLimits[i] != -1) {
+            throw new IOException(
+                String.format(
+                    Locale.ROOT,
+                    "invalid expression %s - bucketSizeLimit '%s' must be greater than 0 or -1.",
+                    expression,
+                    bucketLimitStr));
+          }
+          if (levelLimits[i] == -1) {
+            levelLimits[i] = Integer.MAX_VALUE;
+          }
+        }
+        bucketLimitSet = true;
 
         // Bucket limit is set. So set rows.
-        if (bucketLimit == -1) {
-          rowsInt = bucketLimit = Integer.MAX_VALUE;
-        } else {
-          rowsInt = bucketLimit;
+        bucketLimit = Arrays.stream(levelLimits).min().getAsInt();
+        rowsInt = bucketLimit;
+        if (levelLimits.length > 1) {
+          levelBucketLimits = levelLimits;
         }
       } catch (NumberFormatException e) {
         throw new IOException(
@@ -375,6 +436,7 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
         methodStr,
         bucketLimitSet,
         overfetchInt);
+    this.levelBucketSizeLimits = levelBucketLimits;
   }
 
   // see usage in parallelize method
@@ -557,7 +619,17 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
     }
 
     if (serializeBucketSizeLimit) {
-      if (bucketSizeLimit == Integer.MAX_VALUE) {
+      if (levelBucketSizeLimits != null) {
+        StringBuilder builder = new StringBuilder();
+        for (int levelLimit : levelBucketSizeLimits) {
+          if (0 != builder.length()) {
+            builder.append(",");
+          }
+          builder.append(levelLimit == Integer.MAX_VALUE ? -1 : levelLimit);
+        }
+        expression.addParameter(
+            new StreamExpressionNamedParameter("bucketSizeLimit", builder.toString()));
+      } else if (bucketSizeLimit == Integer.MAX_VALUE) {
         expression.addParameter(
             new StreamExpressionNamedParameter("bucketSizeLimit", Integer.toString(-1)));
       } else {
@@ -588,6 +660,10 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
       expression.addParameter(new StreamExpressionNamedParameter("method", this.method));
     }
 
+    if (refine) {
+      expression.addParameter(new StreamExpressionNamedParameter("refine", "true"));
+    }
+
     expression.addParameter(
         new StreamExpressionNamedParameter("solrConnection", solrConnection.toString()));
 
@@ -824,7 +900,8 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
     buf.append(":{");
     buf.append("\"type\":\"terms\"");
     buf.append(",\"field\":\"").append(_buckets[level].toString()).append('"');
-    buf.append(",\"limit\":").append(_limit);
+    buf.append(",\"limit\":")
+        .append(levelBucketSizeLimits != null ? levelBucketSizeLimits[level] : _limit);
 
     if (refine) {
       buf.append(",\"refine\":true");
@@ -1013,6 +1090,7 @@ public class FacetStream extends TupleStream implements Expressible, ParallelMet
           method,
           serializeBucketSizeLimit,
           overfetch);
+      cloned.levelBucketSizeLimits = levelBucketSizeLimits;
       streams[p] = cloned;
     }
     return streams;
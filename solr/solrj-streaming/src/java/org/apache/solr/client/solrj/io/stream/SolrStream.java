@@ -317,6 +317,9 @@ public class SolrStream extends TupleStream {
     }
 
     if (CommonParams.JAVABIN.equals(wt)) {
+      if (StreamParams.COLUMNAR.equals(requestParams.get(StreamParams.EXPORT_FORMAT))) {
+        return new ColumnarTupleStreamParser(stream, true);
+      }
       return new JavabinTupleStreamParser(stream, true);
     } else {
       InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
@@ -17,15 +17,74 @@
 package org.apache.solr.client.solrj.io.stream;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class StreamExecutorHelper {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Run the tasks of streams fanning out to shards and workers on virtual threads, one per task,
+   * instead of on platform threads. Only effective on a Java runtime supporting virtual threads.
+   */
+  static final boolean useVirtualThreads =
+      EnvUtils.getPropertyAsBool("solr.streamingexpressions.virtualThreads.enabled", false);
+
+  // Thread.ofVirtual() and the Thread.Builder methods, looked up reflectively since SolrJ is
+  // compiled for a Java release without virtual threads; null if the runtime has none
+  private static final Method[] VIRTUAL_THREAD_BUILDER = lookupVirtualThreadBuilder();
+
+  private static Method[] lookupVirtualThreadBuilder() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      return new Method[] {
+        Thread.class.getMethod("ofVirtual"),
+        builderClass.getMethod("name", String.class, long.class),
+        builderClass.getMethod("factory")
+      };
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a factory of virtual threads named after the given prefix, or null if the runtime does
+   * not support virtual threads.
+   */
+  static ThreadFactory newVirtualThreadFactory(String threadsName) {
+    if (VIRTUAL_THREAD_BUILDER == null) {
+      return null;
+    }
+    try {
+      Object builder = VIRTUAL_THREAD_BUILDER[0].invoke(null);
+      builder = VIRTUAL_THREAD_BUILDER[1].invoke(builder, threadsName + "-", 0L);
+      return (ThreadFactory) VIRTUAL_THREAD_BUILDER[2].invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      log.warn("Unable to create virtual threads, using platform threads instead", e);
+      return null;
+    }
+  }
+
+  private static ThreadFactory newThreadFactory(String threadsName) {
+    if (useVirtualThreads) {
+      ThreadFactory virtualThreadFactory = newVirtualThreadFactory(threadsName);
+      if (virtualThreadFactory != null) {
+        return virtualThreadFactory;
+      }
+    }
+    return new SolrNamedThreadFactory(threadsName);
+  }
 
   /**
    * Takes a list of Callables and executes them returning the results as a list. The method waits
@@ -33,6 +92,9 @@ public class StreamExecutorHelper {
    * it will be thrown, wrapped into an IOException, and other following exceptions will be added as
    * `addSuppressed` to the original exception
    *
+   * <p>The tasks run on a new thread each, a virtual one if {@code
+   * solr.streamingexpressions.virtualThreads.enabled} is true and the runtime supports them.
+   *
    * @param <T> the response type
    * @param tasks the list of callables to be executed
    * @param threadsName name to be used by the SolrNamedThreadFactory
@@ -42,7 +104,7 @@ public class StreamExecutorHelper {
   public static <T> Collection<T> submitAllAndAwaitAggregatingExceptions(
       List<? extends Callable<T>> tasks, String threadsName) throws IOException {
     ExecutorService service =
-        ExecutorUtil.newMDCAwareCachedThreadPool(new SolrNamedThreadFactory(threadsName));
+        ExecutorUtil.newMDCAwareCachedThreadPool(newThreadFactory(threadsName));
     try {
       return ExecutorUtil.submitAllAndAwaitAggregatingExceptions(service, tasks).stream()
           .collect(Collectors.toList());
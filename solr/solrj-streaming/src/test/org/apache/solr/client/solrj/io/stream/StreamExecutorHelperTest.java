@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.solr.SolrTestCase;
 import org.junit.Test;
@@ -65,4 +66,14 @@ public class StreamExecutorHelperTest extends SolrTestCase {
     List<String> expected = List.of("TestException0", "TestException2", "TestException4");
     assertEquals(expected, results);
   }
+
+  @Test
+  public void virtualThreadFactoryTest() throws Exception {
+    ThreadFactory factory = StreamExecutorHelper.newVirtualThreadFactory("test");
+    // tests run on a Java release with virtual threads
+    assertNotNull(factory);
+    Thread thread = factory.newThread(() -> {});
+    assertTrue(thread.isVirtual());
+    assertEquals("test-0", thread.getName());
+  }
 }
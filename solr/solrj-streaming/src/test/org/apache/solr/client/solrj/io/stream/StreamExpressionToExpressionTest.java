@@ -16,6 +16,7 @@
  */
 package org.apache.solr.client.solrj.io.stream;
 
+import java.io.IOException;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.ops.GroupOperation;
@@ -326,6 +327,36 @@ public class StreamExpressionToExpressionTest extends SolrTestCase {
       assertEquals(stream.getOffset(), 0);
     }
 
+    // a bucket size limit for each level
+    try (FacetStream stream =
+        new FacetStream(
+            StreamExpressionParser.parse(
+                "facet("
+                    + "collection1, "
+                    + "q=\"*:*\", "
+                    + "buckets=\"a_s,b_s\", "
+                    + "bucketSorts=\"sum(a_i) desc\", "
+                    + "bucketSizeLimit=\"-1,12\", "
+                    + "refine=true, "
+                    + "sum(a_i)"
+                    + ")"),
+            factory)) {
+      expressionString = stream.toExpression(factory).toString();
+      assertTrue(expressionString.contains("bucketSizeLimit=\"-1,12\""));
+      assertTrue(expressionString.contains("refine=true"));
+      assertEquals(stream.getBucketSizeLimit(), 12);
+      assertEquals(stream.getRows(), 12);
+    }
+
+    expectThrows(
+        IOException.class,
+        () ->
+            new FacetStream(
+                StreamExpressionParser.parse(
+                    "facet(collection1, q=\"*:*\", buckets=\"a_s,b_s\", "
+                        + "bucketSorts=\"sum(a_i) desc\", bucketSizeLimit=\"-1,12,5\", sum(a_i))"),
+                factory));
+
     try (FacetStream stream =
         new FacetStream(
             StreamExpressionParser.parse(
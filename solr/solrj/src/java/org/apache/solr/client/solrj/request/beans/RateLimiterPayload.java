@@ -33,6 +33,10 @@ public class RateLimiterPayload implements ReflectMapWriter {
 
   @JsonProperty public Integer slotAcquisitionTimeoutInMS;
 
+  @JsonProperty public Boolean adaptiveLimitEnabled;
+
+  @JsonProperty public Integer minAllowedRequests;
+
   public RateLimiterPayload copy() {
     RateLimiterPayload result = new RateLimiterPayload();
 
@@ -41,6 +45,8 @@ public class RateLimiterPayload implements ReflectMapWriter {
     result.allowedRequests = allowedRequests;
     result.slotBorrowingEnabled = slotBorrowingEnabled;
     result.slotAcquisitionTimeoutInMS = slotAcquisitionTimeoutInMS;
+    result.adaptiveLimitEnabled = adaptiveLimitEnabled;
+    result.minAllowedRequests = minAllowedRequests;
 
     return result;
   }
@@ -52,7 +58,9 @@ public class RateLimiterPayload implements ReflectMapWriter {
           && Objects.equals(this.guaranteedSlots, that.guaranteedSlots)
           && Objects.equals(this.allowedRequests, that.allowedRequests)
           && Objects.equals(this.slotBorrowingEnabled, that.slotBorrowingEnabled)
-          && Objects.equals(this.slotAcquisitionTimeoutInMS, that.slotAcquisitionTimeoutInMS);
+          && Objects.equals(this.slotAcquisitionTimeoutInMS, that.slotAcquisitionTimeoutInMS)
+          && Objects.equals(this.adaptiveLimitEnabled, that.adaptiveLimitEnabled)
+          && Objects.equals(this.minAllowedRequests, that.minAllowedRequests);
     }
     return false;
   }
@@ -64,6 +72,8 @@ public class RateLimiterPayload implements ReflectMapWriter {
         guaranteedSlots,
         allowedRequests,
         slotBorrowingEnabled,
-        slotAcquisitionTimeoutInMS);
+        slotAcquisitionTimeoutInMS,
+        adaptiveLimitEnabled,
+        minAllowedRequests);
   }
 }
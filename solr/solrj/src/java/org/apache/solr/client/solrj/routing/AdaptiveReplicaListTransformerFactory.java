@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.URLUtil;
+
+/**
+ * Factory for a {@link ReplicaListTransformer} that routes requests to the replica with the best
+ * expected latency, based on the requests sent so far through the same factory instance.
+ *
+ * <p>The caller reports each request to a node with {@link #requestStarted(String)} and {@link
+ * #requestFinished(String)}, and the response times with {@link #recordResponseTime(String, long)}.
+ * A node's expected latency is an exponentially weighted moving average of its response times,
+ * multiplied by one plus the number of requests outstanding to it. Nodes without a recent response
+ * time are expected to be fast, so that they get probed again.
+ *
+ * <p>Rather than always moving the best replica to the front, which would send all the load to
+ * whichever node looked best a moment ago, the replicas are shuffled and the better of the first
+ * two is moved to the front ("power of two choices").
+ */
+public class AdaptiveReplicaListTransformerFactory implements ReplicaListTransformerFactory {
+  /** Config name of the weight of the latest response time in the moving average. */
+  public static final String ALPHA = "alpha";
+
+  public static final double DEFAULT_ALPHA = 0.3;
+
+  /** Response times older than this are ignored. */
+  static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final double alpha;
+  private final Random random;
+  private final ConcurrentMap<String, NodeStats> nodeStats = new ConcurrentHashMap<>();
+  private final ReplicaListTransformer transformer = new AdaptiveReplicaListTransformer();
+
+  public AdaptiveReplicaListTransformerFactory() {
+    this(DEFAULT_ALPHA, new Random());
+  }
+
+  public AdaptiveReplicaListTransformerFactory(NamedList<?> c) {
+    this(
+        c.get(ALPHA) == null ? DEFAULT_ALPHA : ((Number) c.get(ALPHA)).doubleValue(),
+        new Random());
+  }
+
+  public AdaptiveReplicaListTransformerFactory(double alpha, Random random) {
+    if (alpha <= 0 || alpha > 1) {
+      throw new IllegalArgumentException(ALPHA + " must be in (0, 1]: " + alpha);
+    }
+    this.alpha = alpha;
+    this.random = random;
+  }
+
+  @Override
+  public ReplicaListTransformer getInstance(
+      String configSpec, SolrParams requestParams, ReplicaListTransformerFactory fallback) {
+    return transformer;
+  }
+
+  /** Records that a request was sent to the node of the given (base or core) URL. */
+  public void requestStarted(String url) {
+    stats(url).outstanding.incrementAndGet();
+  }
+
+  /** Records that a request {@link #requestStarted(String) sent} to the node completed. */
+  public void requestFinished(String url) {
+    stats(url).outstanding.decrementAndGet();
+  }
+
+  /** Records the response time of a request that the node of the given URL answered. */
+  public void recordResponseTime(String url, long elapsedMs) {
+    stats(url).update(elapsedMs, alpha);
+  }
+
+  /** The expected latency of the node of the given URL; lower is better. */
+  double score(String url) {
+    NodeStats stats = nodeStats.get(nodeKey(url));
+    return stats == null ? 0 : stats.score();
+  }
+
+  private NodeStats stats(String url) {
+    return nodeStats.computeIfAbsent(nodeKey(url), k -> new NodeStats());
+  }
+
+  /** Requests to different cores of a node share its statistics. */
+  static String nodeKey(String url) {
+    String key = URLUtil.removeScheme(url);
+    key = URLUtil.isBaseUrl(key) ? key : URLUtil.extractBaseUrl(key);
+    return key.endsWith("/") ? key.substring(0, key.length() - 1) : key;
+  }
+
+  private static final class NodeStats {
+    final AtomicInteger outstanding = new AtomicInteger();
+    private double responseTime = Double.NaN;
+    private long updatedNanos;
+
+    synchronized void update(long elapsedMs, double alpha) {
+      if (Double.isNaN(responseTime) || System.nanoTime() - updatedNanos > STALE_NANOS) {
+        responseTime = elapsedMs;
+      } else {
+        responseTime += alpha * (elapsedMs - responseTime);
+      }
+      updatedNanos = System.nanoTime();
+    }
+
+    synchronized double score() {
+      if (Double.isNaN(responseTime) || System.nanoTime() - updatedNanos > STALE_NANOS) {
+        return 0;
+      }
+      return responseTime * (1 + Math.max(0, outstanding.get()));
+    }
+  }
+
+  private final class AdaptiveReplicaListTransformer implements ReplicaListTransformer {
+    @Override
+    public <T> void transform(List<T> choices) {
+      if (choices.size() < 2) {
+        return;
+      }
+      Collections.shuffle(choices, random);
+      if (score(choices.get(1)) < score(choices.get(0))) {
+        Collections.swap(choices, 0, 1);
+      }
+    }
+
+    private double score(Object choice) {
+      return AdaptiveReplicaListTransformerFactory.this.score(
+          choice instanceof Replica replica ? replica.getBaseUrl() : choice.toString());
+    }
+  }
+}
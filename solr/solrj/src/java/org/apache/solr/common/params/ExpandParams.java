@@ -26,4 +26,10 @@ public interface ExpandParams {
   public static final String EXPAND_Q = EXPAND + ".q";
   public static final String EXPAND_FQ = EXPAND + ".fq";
   public static final String EXPAND_NULL = EXPAND + ".nullGroup";
+
+  /**
+   * When true, the groups are expanded from the top documents the collapse filter kept while
+   * collapsing, rather than by searching again, whenever the request allows it.
+   */
+  public static final String EXPAND_SINGLE_PASS = EXPAND + ".singlePass";
 }
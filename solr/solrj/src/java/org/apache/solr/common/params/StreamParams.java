@@ -21,6 +21,10 @@ public interface StreamParams {
 
   // parameters
   String EXPR = "expr";
+  String EXPORT_FORMAT = "exportFormat";
+
+  // values of EXPORT_FORMAT
+  String COLUMNAR = "columnar";
 
   // stream properties
   String TUPLE = "tuple";
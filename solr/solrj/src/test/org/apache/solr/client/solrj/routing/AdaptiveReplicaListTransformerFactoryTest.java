@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.junit.Test;
+
+@SolrTestCaseJ4.SuppressSSL // not useful / needed for this test
+public class AdaptiveReplicaListTransformerFactoryTest extends SolrTestCase {
+
+  private static final String FAST = "http://fast:8983/solr";
+  private static final String SLOW = "http://slow:8983/solr";
+
+  @Test
+  public void testStatsAreKeptPerNode() {
+    AdaptiveReplicaListTransformerFactory factory =
+        new AdaptiveReplicaListTransformerFactory(0.5, random());
+    assertEquals(0, factory.score(FAST + "/core1"), 0);
+
+    factory.recordResponseTime(FAST + "/core1", 10);
+    assertEquals(10, factory.score(FAST + "/core2"), 0);
+    assertEquals(10, factory.score("https://fast:8983/solr/"), 0);
+
+    factory.recordResponseTime(FAST, 20);
+    assertEquals(15, factory.score(FAST), 0);
+
+    // each outstanding request adds the expected latency of one more request
+    factory.requestStarted(FAST + "/core1");
+    factory.requestStarted(FAST + "/core2");
+    assertEquals(45, factory.score(FAST), 0);
+    factory.requestFinished(FAST + "/core1");
+    factory.requestFinished(FAST + "/core2");
+    assertEquals(15, factory.score(FAST), 0);
+  }
+
+  @Test
+  public void testPrefersFasterOfTwo() {
+    AdaptiveReplicaListTransformerFactory factory =
+        new AdaptiveReplicaListTransformerFactory(
+            AdaptiveReplicaListTransformerFactory.DEFAULT_ALPHA, random());
+    factory.recordResponseTime(FAST, 10);
+    factory.recordResponseTime(SLOW, 500);
+    ReplicaListTransformer transformer =
+        factory.getInstance(null, new ModifiableSolrParams(), null);
+    for (int i = 0; i < 20; i++) {
+      List<String> urls = new ArrayList<>(List.of(SLOW + "/core1", FAST + "/core2"));
+      transformer.transform(urls);
+      assertEquals(FAST + "/core2", urls.get(0));
+      assertEquals(2, urls.size());
+    }
+  }
+
+  @Test
+  public void testInvalidAlpha() {
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> new AdaptiveReplicaListTransformerFactory(0, random()));
+  }
+}